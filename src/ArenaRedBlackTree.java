@@ -0,0 +1,462 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * ArenaRedBlackTree is a red black tree whose nodes live in parallel primitive arrays instead of objects.
+ * <p>
+ * A node is an int index into the arrays, index 0 is the shared black NIL leaf. The key of a node is copied into
+ * keys[] so a search only reads int arrays and touches the Item of the node it returns.
+ * The arrays grow in chunks, so there is no per-node object header and nothing for the GC to trace but the items.
+ */
+public class ArenaRedBlackTree implements ItemIndex {
+
+    private static final int NIL = 0;
+    private static final byte BLACK = 0;
+    private static final byte RED = 1;
+    private static final int CHUNK = 1 << 16;
+
+    private int[] keys;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private byte[] colors;
+    private Item[] items;
+    // tree root node
+    private int root;
+    // next never used node index
+    private int next;
+    // deleted nodes, chained through left[], reused before next
+    private int freeHead;
+    // number of items in the tree
+    private int size;
+
+    // Constructors
+    public ArenaRedBlackTree(int capacity) {
+        allocate(capacity + 1);
+        this.root = NIL;
+        this.next = 1;
+        this.freeHead = NIL;
+        this.size = 0;
+    }
+
+    public ArenaRedBlackTree(Item[] items) {
+        this(items.length);
+        if (RedBlackTree.isSorted(items)) {
+            // node i + 1 holds items[i], so in-order neighbours are also neighbours in the arrays
+            this.root = buildBalanced(items, 0, items.length - 1, 0, RedBlackTree.redDepth(items.length), NIL);
+            this.next = items.length + 1;
+            this.size = items.length;
+        } else {
+            for (Item i : items) {
+                this.add(i);
+            }
+        }
+    }
+
+    /**
+     * Build a balanced subtree from sorted items[lo..hi] by always taking the middle item as root
+     *
+     * @param sorted   sorted items
+     * @param lo       first index
+     * @param hi       last index
+     * @param depth    depth of the subtree root
+     * @param redDepth depth whose nodes are red
+     * @param p        parent of the subtree root
+     * @return subtree root, NIL if empty
+     */
+    private int buildBalanced(Item[] sorted, int lo, int hi, int depth, int redDepth, int p) {
+        if (lo > hi) return NIL;
+        int mid = (lo + hi) >>> 1;
+        int node = mid + 1;
+        keys[node] = sorted[mid].getId();
+        items[node] = sorted[mid];
+        colors[node] = depth == redDepth ? RED : BLACK;
+        parent[node] = p;
+        left[node] = buildBalanced(sorted, lo, mid - 1, depth + 1, redDepth, node);
+        right[node] = buildBalanced(sorted, mid + 1, hi, depth + 1, redDepth, node);
+        return node;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        colors = new byte[capacity];
+        items = new Item[capacity];
+    }
+
+    /**
+     * Grow all arrays by at least one chunk
+     */
+    private void grow() {
+        int capacity = keys.length + Math.max(CHUNK, keys.length >> 1);
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        items = Arrays.copyOf(items, capacity);
+    }
+
+    /**
+     * Add an item to the tree
+     *
+     * @param item given item
+     */
+    public void add(Item item) {
+        // walk down to the leaf position of the new node
+        int itemID = item.getId();
+        int p = NIL;
+        int current = root;
+        while (current != NIL) {
+            p = current;
+            if (itemID < keys[current]) {
+                current = left[current];
+            } else if (itemID > keys[current]) {
+                current = right[current];
+            } else {
+                // same id, replace the stored item like TreeMap.put does
+                items[current] = item;
+                return;
+            }
+        }
+        int node = allocateNode();
+        keys[node] = itemID;
+        items[node] = item;
+        left[node] = NIL;
+        right[node] = NIL;
+        colors[node] = RED;
+        parent[node] = p;
+        if (p == NIL) {
+            root = node;
+        } else if (itemID < keys[p]) {
+            left[p] = node;
+        } else {
+            right[p] = node;
+        }
+        size++;
+        insertFixup(node);
+    }
+
+    /**
+     * Take a node index from the free list, or a never used one
+     *
+     * @return node index
+     */
+    private int allocateNode() {
+        if (freeHead != NIL) {
+            int node = freeHead;
+            freeHead = left[node];
+            return node;
+        }
+        if (next == keys.length) grow();
+        return next++;
+    }
+
+    /**
+     * Remove the item with the given id from the tree
+     *
+     * @param itemID given item ID
+     * @return the removed item, null if absent
+     */
+    public Item remove(int itemID) {
+        int node = find(itemID);
+        if (node == NIL) return null;
+        Item removed = items[node];
+        delete(node);
+        size--;
+        // put the node on the free list
+        items[node] = null;
+        left[node] = freeHead;
+        freeHead = node;
+        return removed;
+    }
+
+    /**
+     * Unlink a node from the red black tree and adjust the color
+     *
+     * @param node the node to delete
+     */
+    private void delete(int node) {
+        int moved = node;
+        byte removedColor = colors[moved];
+        int child;
+        if (left[node] == NIL) {
+            child = right[node];
+            transplant(node, right[node]);
+        } else if (right[node] == NIL) {
+            child = left[node];
+            transplant(node, left[node]);
+        } else {
+            // the successor takes the place and the color of the deleted node
+            moved = right[node];
+            while (left[moved] != NIL) moved = left[moved];
+            removedColor = colors[moved];
+            child = right[moved];
+            if (parent[moved] == node) {
+                parent[child] = moved;
+            } else {
+                transplant(moved, right[moved]);
+                right[moved] = right[node];
+                parent[right[moved]] = moved;
+            }
+            transplant(node, moved);
+            left[moved] = left[node];
+            parent[left[moved]] = moved;
+            colors[moved] = colors[node];
+        }
+        if (removedColor == BLACK) deleteFixup(child);
+        // NIL may have been used as a temporary parent holder
+        parent[NIL] = NIL;
+    }
+
+    /**
+     * Restore the red black properties after removing a black node above the given one
+     *
+     * @param node the node carrying the extra black
+     */
+    private void deleteFixup(int node) {
+        while (node != root && colors[node] == BLACK) {
+            int p = parent[node];
+            boolean isLeft = node == left[p];
+            int sibling = isLeft ? right[p] : left[p];
+            if (colors[sibling] == RED) {
+                // red sibling, rotate to get a black one
+                colors[sibling] = BLACK;
+                colors[p] = RED;
+                if (isLeft) {
+                    leftRotate(p);
+                    sibling = right[p];
+                } else {
+                    rightRotate(p);
+                    sibling = left[p];
+                }
+            }
+            if (colors[left[sibling]] == BLACK && colors[right[sibling]] == BLACK) {
+                // black sibling with black children, push the extra black up
+                colors[sibling] = RED;
+                node = p;
+            } else {
+                if (isLeft && colors[right[sibling]] == BLACK) {
+                    // the near child is red, turn it into the far one
+                    colors[left[sibling]] = BLACK;
+                    colors[sibling] = RED;
+                    rightRotate(sibling);
+                    sibling = right[p];
+                } else if (!isLeft && colors[left[sibling]] == BLACK) {
+                    colors[right[sibling]] = BLACK;
+                    colors[sibling] = RED;
+                    leftRotate(sibling);
+                    sibling = left[p];
+                }
+                // the far child is red, one rotation at the parent finishes
+                colors[sibling] = colors[p];
+                colors[p] = BLACK;
+                if (isLeft) {
+                    colors[right[sibling]] = BLACK;
+                    leftRotate(p);
+                } else {
+                    colors[left[sibling]] = BLACK;
+                    rightRotate(p);
+                }
+                node = root;
+            }
+        }
+        colors[node] = BLACK;
+    }
+
+    /**
+     * Replace the subtree rooted at one node by the subtree rooted at another
+     *
+     * @param node        the replaced node
+     * @param replacement the new subtree root, may be NIL
+     */
+    private void transplant(int node, int replacement) {
+        int p = parent[node];
+        if (p == NIL) {
+            root = replacement;
+        } else if (node == left[p]) {
+            left[p] = replacement;
+        } else {
+            right[p] = replacement;
+        }
+        parent[replacement] = p;
+    }
+
+    /**
+     * Restore the red black properties after inserting a red node
+     *
+     * @param node the new node
+     */
+    private void insertFixup(int node) {
+        while (colors[parent[node]] == RED) {
+            int p = parent[node];
+            int grandparent = parent[p];
+            boolean isLeft = p == left[grandparent];
+            int uncle = isLeft ? right[grandparent] : left[grandparent];
+            if (colors[uncle] == RED) {
+                // uncle node is red, no rotate, just recolor it
+                colors[p] = BLACK;
+                colors[uncle] = BLACK;
+                colors[grandparent] = RED;
+                node = grandparent;
+            } else {
+                // uncle node is black
+                if (node == (isLeft ? right[p] : left[p])) {
+                    node = p;
+                    if (isLeft) {
+                        leftRotate(node);
+                    } else {
+                        rightRotate(node);
+                    }
+                }
+                p = parent[node];
+                grandparent = parent[p];
+                colors[p] = BLACK;
+                colors[grandparent] = RED;
+                if (isLeft) {
+                    rightRotate(grandparent);
+                } else {
+                    leftRotate(grandparent);
+                }
+            }
+        }
+        colors[root] = BLACK;
+    }
+
+    /**
+     * Left rotation
+     *
+     * @param node pivot node
+     */
+    private void leftRotate(int node) {
+        int child = right[node];
+        right[node] = left[child];
+        if (left[child] != NIL) parent[left[child]] = node;
+        parent[child] = parent[node];
+        if (parent[node] == NIL) {
+            root = child;
+        } else if (node == left[parent[node]]) {
+            left[parent[node]] = child;
+        } else {
+            right[parent[node]] = child;
+        }
+        left[child] = node;
+        parent[node] = child;
+    }
+
+    /**
+     * Right rotation
+     *
+     * @param node pivot node
+     */
+    private void rightRotate(int node) {
+        int child = left[node];
+        left[node] = right[child];
+        if (right[child] != NIL) parent[right[child]] = node;
+        parent[child] = parent[node];
+        if (parent[node] == NIL) {
+            root = child;
+        } else if (node == right[parent[node]]) {
+            right[parent[node]] = child;
+        } else {
+            left[parent[node]] = child;
+        }
+        right[child] = node;
+        parent[node] = child;
+    }
+
+    /**
+     * Find the node with given itemID in the tree
+     *
+     * @param itemID given item ID
+     * @return the node index, NIL if absent
+     */
+    private int find(int itemID) {
+        int node = root;
+        while (node != NIL) {
+            int key = keys[node];
+            if (itemID == key) {
+                return node;
+            }
+            node = itemID < key ? left[node] : right[node];
+        }
+        return NIL;
+    }
+
+    /**
+     * Search for a given ID item
+     *
+     * @param itemID given item ID
+     * @return item information
+     */
+    public Item search(int itemID) {
+        // items[NIL] is always null
+        return items[find(itemID)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis against RedBlackTree
+        // every line is "<tree>: bytes/item, search ns/op; ..." for 2^21 and 2^23 items
+        int[] dataSizes = {21, 23};
+        Random random = new Random();
+        StringBuilder treeResult = new StringBuilder("object tree: ");
+        StringBuilder arenaResult = new StringBuilder("arena tree: ");
+        for (int i : dataSizes) {
+            Item[] warehouseItems = GUI.generateItems("warehouseData" + i + ".txt");
+
+            long before = RedBlackTree.usedMemory();
+            ItemIndex redBlackTree = new RedBlackTree(warehouseItems);
+            long after = RedBlackTree.usedMemory();
+            treeResult.append((after - before) / warehouseItems.length).append(", ")
+                    .append(searchCost(redBlackTree, random)).append("; ");
+            redBlackTree = null;
+
+            before = RedBlackTree.usedMemory();
+            ArenaRedBlackTree arenaTree = new ArenaRedBlackTree(warehouseItems);
+            after = RedBlackTree.usedMemory();
+            arenaResult.append((after - before) / warehouseItems.length).append(", ")
+                    .append(searchCost(arenaTree, random)).append("; ");
+
+            // the same correctness check as the GUI: every answer must match TreeMap
+            TreeMap<Integer, Item> treeMap = new TreeMap<>();
+            for (Item item : warehouseItems) {
+                treeMap.put(item.getId(), item);
+            }
+            for (int id = -1; id <= warehouseItems.length; id++) {
+                if (arenaTree.search(id) != treeMap.get(id)) {
+                    throw new IllegalStateException("Arena tree disagrees with TreeMap on item " + id);
+                }
+            }
+        }
+        System.out.println(treeResult.toString().trim());
+        System.out.println(arenaResult.toString().trim());
+    }
+
+    /**
+     * Average time of 10000 random searches
+     *
+     * @param index  the index under test
+     * @param random random source
+     * @return search time in ns
+     */
+    static long searchCost(ItemIndex index, Random random) {
+        long start, end, duration = 0;
+        int size = index.size();
+        for (int j = 0; j < 10000; j++) {
+            int itemID = random.nextInt(size);
+            start = System.nanoTime();
+            index.search(itemID);
+            end = System.nanoTime();
+            duration = duration + end - start;
+        }
+        return duration / 10000;
+    }
+}
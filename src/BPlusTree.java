@@ -0,0 +1,497 @@
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * BPlusTree is an item index keyed on Item.getId() with wide nodes.
+ * <p>
+ * Every node holds up to order keys (32 to 128 is the intended range) in an int[], so one node visit
+ * searches many keys inside a few cache lines and the tree is only log_order(n) levels deep.
+ * Items are only stored in the leaves, which are linked left to right for range scans.
+ */
+public class BPlusTree implements ItemIndex {
+
+    public static final int DEFAULT_ORDER = 64;
+
+    // maximum number of keys in a node
+    private final int order;
+    // minimum number of keys in a node other than the root
+    private final int minKeys;
+    // tree root node
+    private Node root;
+    // number of items in the tree
+    private int size;
+
+    // key pushed up by the last split, and whether the last insert replaced an item
+    private int splitKey;
+    private boolean replaced;
+
+    /**
+     * Tree node class, a leaf or an inner node
+     */
+    private static class Node {
+        final boolean leaf;
+        // leaf: number of items, inner: number of separator keys (children = count + 1)
+        int count;
+        final int[] keys;
+        // leaf only
+        final Item[] items;
+        Node next;
+        // inner only, keys[i] is the smallest key under children[i + 1]
+        final Node[] children;
+
+        // Constructor, every array has room for one extra entry before a split
+        Node(boolean leaf, int order) {
+            this.leaf = leaf;
+            this.keys = new int[order + 1];
+            this.items = leaf ? new Item[order + 1] : null;
+            this.children = leaf ? null : new Node[order + 2];
+        }
+    }
+
+    // Constructors
+    public BPlusTree(int order) {
+        if (order < 4) throw new IllegalArgumentException("Order must be at least 4.");
+        this.order = order;
+        this.minKeys = order / 2;
+        this.root = new Node(true, order);
+        this.size = 0;
+    }
+
+    public BPlusTree(Item[] items) {
+        this(items, DEFAULT_ORDER);
+    }
+
+    public BPlusTree(Item[] items, int order) {
+        this(order);
+        if (items.length > 0 && RedBlackTree.isSorted(items)) {
+            bulkLoad(items);
+        } else {
+            for (Item i : items) {
+                this.add(i);
+            }
+        }
+    }
+
+    /**
+     * Build the tree level by level from id-sorted items, spreading entries evenly over the nodes of a level
+     *
+     * @param sorted items sorted by id
+     */
+    private void bulkLoad(Item[] sorted) {
+        int n = sorted.length;
+        int leaves = (n + order - 1) / order;
+        Node[] level = new Node[leaves];
+        int[] minimums = new int[leaves];
+        for (int l = 0, from = 0; l < leaves; l++) {
+            int to = (int) ((long) n * (l + 1) / leaves);
+            Node leaf = new Node(true, order);
+            for (int i = from; i < to; i++) {
+                leaf.keys[i - from] = sorted[i].getId();
+                leaf.items[i - from] = sorted[i];
+            }
+            leaf.count = to - from;
+            if (l > 0) level[l - 1].next = leaf;
+            level[l] = leaf;
+            minimums[l] = leaf.keys[0];
+            from = to;
+        }
+        while (level.length > 1) {
+            int m = level.length;
+            int parents = (m + order) / (order + 1);
+            Node[] upper = new Node[parents];
+            int[] upperMinimums = new int[parents];
+            for (int p = 0, from = 0; p < parents; p++) {
+                int to = (int) ((long) m * (p + 1) / parents);
+                Node inner = new Node(false, order);
+                for (int i = from; i < to; i++) {
+                    inner.children[i - from] = level[i];
+                    if (i > from) inner.keys[i - from - 1] = minimums[i];
+                }
+                inner.count = to - from - 1;
+                upper[p] = inner;
+                upperMinimums[p] = minimums[from];
+                from = to;
+            }
+            level = upper;
+            minimums = upperMinimums;
+        }
+        root = level[0];
+        size = n;
+    }
+
+    /**
+     * Index of the child of an inner node that covers the key
+     *
+     * @param node inner node
+     * @param key  item ID
+     * @return number of separators not larger than the key
+     */
+    private static int childIndex(Node node, int key) {
+        int lo = 0;
+        int hi = node.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (node.keys[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Position of the first key of a leaf that is not smaller than the given one
+     *
+     * @param node leaf node
+     * @param key  item ID
+     * @return key position, count if every key is smaller
+     */
+    private static int lowerBound(Node node, int key) {
+        int lo = 0;
+        int hi = node.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (node.keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Find the leaf whose key range covers the given id
+     *
+     * @param itemID given item ID
+     * @return leaf node
+     */
+    private Node findLeaf(int itemID) {
+        Node node = root;
+        while (!node.leaf) {
+            node = node.children[childIndex(node, itemID)];
+        }
+        return node;
+    }
+
+    /**
+     * Search for a given ID item
+     *
+     * @param itemID given item ID
+     * @return item information
+     */
+    public Item search(int itemID) {
+        Node leaf = findLeaf(itemID);
+        int i = lowerBound(leaf, itemID);
+        return i < leaf.count && leaf.keys[i] == itemID ? leaf.items[i] : null;
+    }
+
+    /**
+     * Add an item to the tree
+     *
+     * @param item given item
+     */
+    public void add(Item item) {
+        replaced = false;
+        Node right = insert(root, item.getId(), item);
+        if (right != null) {
+            // the root was split, grow the tree by one level
+            Node newRoot = new Node(false, order);
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.keys[0] = splitKey;
+            newRoot.count = 1;
+            root = newRoot;
+        }
+        if (!replaced) size++;
+    }
+
+    /**
+     * Insert into the subtree of a node
+     *
+     * @param node subtree root
+     * @param key  item ID
+     * @param item given item
+     * @return the new right sibling if the node was split, otherwise null
+     */
+    private Node insert(Node node, int key, Item item) {
+        if (node.leaf) {
+            int i = lowerBound(node, key);
+            if (i < node.count && node.keys[i] == key) {
+                // same id, replace the stored item like TreeMap.put does
+                node.items[i] = item;
+                replaced = true;
+                return null;
+            }
+            System.arraycopy(node.keys, i, node.keys, i + 1, node.count - i);
+            System.arraycopy(node.items, i, node.items, i + 1, node.count - i);
+            node.keys[i] = key;
+            node.items[i] = item;
+            node.count++;
+            return node.count > order ? splitLeaf(node) : null;
+        }
+        int c = childIndex(node, key);
+        Node right = insert(node.children[c], key, item);
+        if (right == null) return null;
+        System.arraycopy(node.keys, c, node.keys, c + 1, node.count - c);
+        System.arraycopy(node.children, c + 1, node.children, c + 2, node.count - c);
+        node.keys[c] = splitKey;
+        node.children[c + 1] = right;
+        node.count++;
+        return node.count > order ? splitInner(node) : null;
+    }
+
+    /**
+     * Move the upper half of an overfull leaf into a new right sibling
+     *
+     * @param node overfull leaf
+     * @return the new leaf
+     */
+    private Node splitLeaf(Node node) {
+        int half = node.count / 2;
+        Node right = new Node(true, order);
+        right.count = node.count - half;
+        System.arraycopy(node.keys, half, right.keys, 0, right.count);
+        System.arraycopy(node.items, half, right.items, 0, right.count);
+        for (int i = half; i < node.count; i++) {
+            node.items[i] = null;
+        }
+        node.count = half;
+        right.next = node.next;
+        node.next = right;
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    /**
+     * Move the upper half of an overfull inner node into a new right sibling, the middle key moves up
+     *
+     * @param node overfull inner node
+     * @return the new inner node
+     */
+    private Node splitInner(Node node) {
+        int mid = node.count / 2;
+        Node right = new Node(false, order);
+        right.count = node.count - mid - 1;
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(node.children, mid + 1, right.children, 0, right.count + 1);
+        for (int i = mid + 1; i <= node.count; i++) {
+            node.children[i] = null;
+        }
+        splitKey = node.keys[mid];
+        node.count = mid;
+        return right;
+    }
+
+    /**
+     * Remove the item with the given id from the tree
+     *
+     * @param itemID given item ID
+     * @return the removed item, null if absent
+     */
+    public Item remove(int itemID) {
+        Item removed = delete(root, itemID);
+        if (removed == null) return null;
+        if (!root.leaf && root.count == 0) {
+            // the root lost its last separator, shrink the tree by one level
+            root = root.children[0];
+        }
+        size--;
+        return removed;
+    }
+
+    /**
+     * Delete from the subtree of a node, refilling any child that drops below the minimum
+     *
+     * @param node   subtree root
+     * @param itemID given item ID
+     * @return the removed item, null if absent
+     */
+    private Item delete(Node node, int itemID) {
+        if (node.leaf) {
+            int i = lowerBound(node, itemID);
+            if (i == node.count || node.keys[i] != itemID) return null;
+            Item removed = node.items[i];
+            System.arraycopy(node.keys, i + 1, node.keys, i, node.count - i - 1);
+            System.arraycopy(node.items, i + 1, node.items, i, node.count - i - 1);
+            node.items[--node.count] = null;
+            return removed;
+        }
+        int c = childIndex(node, itemID);
+        Item removed = delete(node.children[c], itemID);
+        if (removed != null && node.children[c].count < minKeys) rebalance(node, c);
+        return removed;
+    }
+
+    /**
+     * Refill an underfull child by borrowing from a sibling, or merge it with one
+     *
+     * @param parent inner node
+     * @param c      index of the underfull child
+     */
+    private void rebalance(Node parent, int c) {
+        Node child = parent.children[c];
+        Node left = c > 0 ? parent.children[c - 1] : null;
+        Node right = c < parent.count ? parent.children[c + 1] : null;
+        if (left != null && left.count > minKeys) {
+            // borrow the last entry of the left sibling
+            System.arraycopy(child.keys, 0, child.keys, 1, child.count);
+            if (child.leaf) {
+                System.arraycopy(child.items, 0, child.items, 1, child.count);
+                child.keys[0] = left.keys[left.count - 1];
+                child.items[0] = left.items[left.count - 1];
+                left.items[left.count - 1] = null;
+                parent.keys[c - 1] = child.keys[0];
+            } else {
+                System.arraycopy(child.children, 0, child.children, 1, child.count + 1);
+                child.keys[0] = parent.keys[c - 1];
+                child.children[0] = left.children[left.count];
+                left.children[left.count] = null;
+                parent.keys[c - 1] = left.keys[left.count - 1];
+            }
+            child.count++;
+            left.count--;
+        } else if (right != null && right.count > minKeys) {
+            // borrow the first entry of the right sibling
+            if (child.leaf) {
+                child.keys[child.count] = right.keys[0];
+                child.items[child.count] = right.items[0];
+                System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+                System.arraycopy(right.items, 1, right.items, 0, right.count - 1);
+                right.items[right.count - 1] = null;
+                parent.keys[c] = right.keys[0];
+            } else {
+                child.keys[child.count] = parent.keys[c];
+                child.children[child.count + 1] = right.children[0];
+                parent.keys[c] = right.keys[0];
+                System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+                System.arraycopy(right.children, 1, right.children, 0, right.count);
+                right.children[right.count] = null;
+            }
+            child.count++;
+            right.count--;
+        } else if (left != null) {
+            merge(parent, c - 1);
+        } else {
+            merge(parent, c);
+        }
+    }
+
+    /**
+     * Merge children i and i + 1 of an inner node into child i
+     *
+     * @param parent inner node
+     * @param i      index of the left child
+     */
+    private void merge(Node parent, int i) {
+        Node left = parent.children[i];
+        Node right = parent.children[i + 1];
+        if (left.leaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            System.arraycopy(right.items, 0, left.items, left.count, right.count);
+            left.count += right.count;
+            left.next = right.next;
+        } else {
+            left.keys[left.count] = parent.keys[i];
+            System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+            System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+            left.count += right.count + 1;
+        }
+        System.arraycopy(parent.keys, i + 1, parent.keys, i, parent.count - i - 1);
+        System.arraycopy(parent.children, i + 2, parent.children, i + 1, parent.count - i - 1);
+        parent.children[parent.count] = null;
+        parent.count--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create a cursor for range scans over the linked leaves, it can be reset and reused for any number of ranges
+     *
+     * @return an empty cursor
+     */
+    public RangeCursor rangeCursor() {
+        return new RangeCursor();
+    }
+
+    /**
+     * In-order iterator over the items with an id in [lo, hi], it allocates nothing while iterating.
+     * The tree must not change while iterating.
+     */
+    public class RangeCursor implements Iterator<Item> {
+        private Node leaf;
+        private int position;
+        private int hi;
+
+        /**
+         * Position the cursor on the first item of a new range
+         *
+         * @param lo smallest id
+         * @param hi largest id
+         * @return this cursor
+         */
+        public RangeCursor reset(int lo, int hi) {
+            this.leaf = findLeaf(lo);
+            this.position = lowerBound(leaf, lo);
+            this.hi = hi;
+            skipExhaustedLeaves();
+            return this;
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && position == leaf.count) {
+                leaf = leaf.next;
+                position = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null && leaf.keys[position] <= hi;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Item item = leaf.items[position++];
+            skipExhaustedLeaves();
+            return item;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis against RedBlackTree
+        // every line is "<file>: tree bytes/item, tree search ns/op, B+tree bytes/item, B+tree search ns/op"
+        Random random = new Random();
+        StringBuilder result = new StringBuilder();
+        String[] fileNames = new String[5 + 20];
+        for (int f = 1; f <= 5; f++) {
+            fileNames[f - 1] = "test-f1-" + f + ".txt";
+        }
+        for (int i = 6; i < 26; i++) {
+            fileNames[i - 1] = "warehouseData" + i + ".txt";
+        }
+        for (String fileName : fileNames) {
+            Item[] warehouseItems = GUI.generateItems(fileName);
+
+            long before = RedBlackTree.usedMemory();
+            ItemIndex redBlackTree = new RedBlackTree(warehouseItems);
+            long after = RedBlackTree.usedMemory();
+            result.append(fileName).append(": ").append((after - before) / warehouseItems.length).append(", ")
+                    .append(ArenaRedBlackTree.searchCost(redBlackTree, random)).append(", ");
+            redBlackTree = null;
+
+            before = RedBlackTree.usedMemory();
+            ItemIndex bPlusTree = new BPlusTree(warehouseItems);
+            after = RedBlackTree.usedMemory();
+            result.append((after - before) / warehouseItems.length).append(", ")
+                    .append(ArenaRedBlackTree.searchCost(bPlusTree, random)).append("\n");
+        }
+        System.out.println(result.toString().trim());
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+/**
+ * BucketQueue is Dial's monotone priority queue for integer distances with edge weights in [0, maxWeight].
+ * <p>
+ * While Dijkstra's algorithm settles distance d, every queued distance lies in [d, d + maxWeight], so
+ * maxWeight + 1 buckets used as a ring are enough: bucket d % (maxWeight + 1) holds the vertices at distance d.
+ * Each bucket is a doubly linked list threaded through two int arrays indexed by vertex, so moving a vertex to a
+ * smaller distance is O(1), and extractMin scans forward over at most maxWeight empty buckets.
+ */
+public class BucketQueue {
+
+    // largest edge weight worth a bucket ring, larger weights fall back to a binary heap
+    public static final int MAX_WEIGHT = 1 << 16;
+    private static final int NONE = -1;
+    private static final int NOT_QUEUED = -2;
+
+    private int size;
+    private final int bucketNumber;
+    // first vertex of every bucket, NONE if empty
+    private final int[] heads;
+    // neighbours in the bucket list, previous is NOT_QUEUED for vertices outside the queue
+    private final int[] next;
+    private final int[] previous;
+    private final long[] keys;
+    // distance of the bucket extractMin looks at first
+    private long cursor;
+
+    // Constructor
+    public BucketQueue(int vertexNumber, int maxWeight) {
+        if (maxWeight < 0 || maxWeight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("Maximum weight must be in [0, " + MAX_WEIGHT + "].");
+        }
+        this.size = 0;
+        this.bucketNumber = maxWeight + 1;
+        this.heads = new int[bucketNumber];
+        this.next = new int[vertexNumber];
+        this.previous = new int[vertexNumber];
+        this.keys = new long[vertexNumber];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(previous, NOT_QUEUED);
+        this.cursor = 0;
+    }
+
+    /**
+     * Insert a vertex, or move it to a smaller distance if it is already queued
+     *
+     * @param vertex   vertex id
+     * @param distance new distance, in [smallest queued distance, smallest queued distance + maxWeight]
+     */
+    public void insertOrDecrease(int vertex, long distance) {
+        if (size == 0) {
+            // an empty ring can start anywhere, but keep the cursor of the vertex just extracted if possible
+            if (distance < cursor || distance - cursor >= bucketNumber) cursor = distance;
+        } else if (distance < cursor || distance - cursor >= bucketNumber) {
+            throw new IllegalArgumentException("Distance " + distance + " is outside the bucket range.");
+        }
+        if (previous[vertex] != NOT_QUEUED) {
+            if (distance > keys[vertex]) throw new IllegalArgumentException("New distance is larger than the current one.");
+            unlink(vertex);
+        } else {
+            size++;
+        }
+        keys[vertex] = distance;
+        int bucket = (int) (distance % bucketNumber);
+        int head = heads[bucket];
+        next[vertex] = head;
+        previous[vertex] = NONE;
+        if (head != NONE) previous[head] = vertex;
+        heads[bucket] = vertex;
+    }
+
+    /**
+     * Take a vertex out of its bucket list
+     *
+     * @param vertex a queued vertex
+     */
+    private void unlink(int vertex) {
+        int before = previous[vertex];
+        int after = next[vertex];
+        if (before == NONE) {
+            heads[(int) (keys[vertex] % bucketNumber)] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) previous[after] = before;
+        previous[vertex] = NOT_QUEUED;
+    }
+
+    /**
+     * Extract a vertex with the smallest distance
+     *
+     * @return vertex id
+     */
+    public int extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        int bucket = (int) (cursor % bucketNumber);
+        while (heads[bucket] == NONE) {
+            cursor++;
+            bucket = bucket + 1 == bucketNumber ? 0 : bucket + 1;
+        }
+        int min = heads[bucket];
+        unlink(min);
+        size--;
+        return min;
+    }
+
+    public boolean contains(int vertex) {
+        return previous[vertex] != NOT_QUEUED;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every vertex still queued, O(maxWeight + size), so that the queue can be reused for the next search
+     */
+    public void clear() {
+        for (int bucket = 0; bucket < bucketNumber; bucket++) {
+            for (int v = heads[bucket]; v != NONE; v = next[v]) {
+                previous[v] = NOT_QUEUED;
+            }
+            heads[bucket] = NONE;
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,226 @@
+import java.io.IOException;
+
+/**
+ * CalendarQueue is a deadline queue that puts every item into the bucket of its deadline day.
+ * <p>
+ * Deadlines only spread over a small window of days (DataGenerator uses 100), so instead of comparing
+ * items the queue keeps a ring of per-day buckets and a cursor on the earliest non-empty day.
+ * Insert appends to one bucket and extractMin pops from the cursor bucket, both O(1) amortized.
+ * Items sharing a deadline day come out in no particular order.
+ */
+public class CalendarQueue implements DeadlineQueue {
+
+    private static final int INITIAL_DAYS = 128;
+    private static final int INITIAL_BUCKET = 4;
+
+    private int size;
+    // ring of buckets, bucket of epoch day d is d & mask
+    private Item[][] buckets;
+    private int[] counts;
+    private int mask;
+    // every stored item has an epoch day in [cursorDay, maxDay], and maxDay - cursorDay < buckets.length
+    private int cursorDay;
+    private int maxDay;
+
+    // Constructors
+    public CalendarQueue() {
+        this.size = 0;
+        allocate(INITIAL_DAYS);
+    }
+
+    /**
+     * Create a queue holding all given items, O(n)
+     *
+     * @param initialItems all items
+     */
+    public CalendarQueue(Item[] initialItems) {
+        this();
+        for (Item item : initialItems) {
+            insert(item);
+        }
+    }
+
+    private void allocate(int days) {
+        this.buckets = new Item[days][];
+        this.counts = new int[days];
+        this.mask = days - 1;
+    }
+
+    /**
+     * Convert a yyMMdd deadline into a day number, so that consecutive days are consecutive integers
+     *
+     * @param deadline deadline in format yyMMdd
+     * @return days since 1970-01-01
+     */
+    static int epochDay(int deadline) {
+        int year = 2000 + deadline / 10000;
+        int month = deadline / 100 % 100;
+        int day = deadline % 100;
+        // days from civil, valid for every year >= 0
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Insert a new item into the queue
+     *
+     * @param newItem a new item created by users
+     */
+    public void insert(Item newItem) {
+        int day = epochDay(newItem.getDeadline());
+        if (size == 0) {
+            cursorDay = day;
+            maxDay = day;
+        } else if (day < cursorDay) {
+            cursorDay = day;
+        } else if (day > maxDay) {
+            maxDay = day;
+        }
+        if (maxDay - cursorDay > mask) resize(maxDay - cursorDay + 1);
+        push(day & mask, newItem);
+        size++;
+    }
+
+    /**
+     * Append an item to a bucket
+     *
+     * @param bucket bucket index
+     * @param item   given item
+     */
+    private void push(int bucket, Item item) {
+        Item[] stack = buckets[bucket];
+        if (stack == null) {
+            stack = new Item[INITIAL_BUCKET];
+            buckets[bucket] = stack;
+        } else if (counts[bucket] == stack.length) {
+            Item[] temp = new Item[2 * stack.length];
+            System.arraycopy(stack, 0, temp, 0, stack.length);
+            stack = temp;
+            buckets[bucket] = stack;
+        }
+        stack[counts[bucket]++] = item;
+    }
+
+    /**
+     * Widen the ring so that the given number of days fit, and redistribute the buckets
+     *
+     * @param days number of days that must fit
+     */
+    private void resize(int days) {
+        Item[][] oldBuckets = buckets;
+        int[] oldCounts = counts;
+        int capacity = oldBuckets.length;
+        while (capacity < days) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+        for (int i = 0; i < oldBuckets.length; i++) {
+            if (oldCounts[i] == 0) continue;
+            // all items of an old bucket share the same day
+            int bucket = epochDay(oldBuckets[i][0].getDeadline()) & mask;
+            buckets[bucket] = oldBuckets[i];
+            counts[bucket] = oldCounts[i];
+        }
+    }
+
+    /**
+     * Move the cursor forward to the first non-empty bucket
+     *
+     * @return bucket index of the soonest deadline
+     */
+    private int advance() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        while (counts[cursorDay & mask] == 0) {
+            cursorDay++;
+        }
+        return cursorDay & mask;
+    }
+
+    /**
+     * Extract the minimum element in queue
+     *
+     * @return the item with soonest deadline
+     */
+    public Item extractMin() {
+        int bucket = advance();
+        int last = --counts[bucket];
+        Item min = buckets[bucket][last];
+        buckets[bucket][last] = null;
+        size--;
+        return min;
+    }
+
+    /**
+     * Return the minimum item
+     *
+     * @return the item with soonest deadline
+     */
+    public Item peek() {
+        int bucket = advance();
+        return buckets[bucket][counts[bucket] - 1];
+    }
+
+    /**
+     * Buckets are always in deadline order, nothing to do
+     */
+    public void build() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis against the binary min-heap
+        // every line is "<queue>: build ns/item, extractMin ns/op, insert ns/op" for 2^21 and 2^23 items
+        int[] dataSizes = {21, 23};
+        StringBuilder heapResult = new StringBuilder("binary: ");
+        StringBuilder calendarResult = new StringBuilder("calendar: ");
+        Item[] warehouseItems;
+        long start, end;
+        for (int i : dataSizes) {
+            warehouseItems = GUI.generateItems("warehouseData" + i + ".txt");
+
+            start = System.nanoTime();
+            DeadlineQueue minHeap = new MinHeap(warehouseItems);
+            end = System.nanoTime();
+            heapResult.append((end - start) / warehouseItems.length).append(", ");
+            appendCost(heapResult, minHeap);
+
+            start = System.nanoTime();
+            DeadlineQueue calendarQueue = new CalendarQueue(warehouseItems);
+            end = System.nanoTime();
+            calendarResult.append((end - start) / warehouseItems.length).append(", ");
+            appendCost(calendarResult, calendarQueue);
+        }
+        System.out.println(heapResult.toString().trim());
+        System.out.println(calendarResult.toString().trim());
+    }
+
+    /**
+     * Measure the average extractMin time of draining the whole queue, then the average insert time of refilling it
+     *
+     * @param result output line
+     * @param queue  a full queue
+     */
+    private static void appendCost(StringBuilder result, DeadlineQueue queue) {
+        int n = queue.size();
+        Item[] drained = new Item[n];
+        long start = System.nanoTime();
+        for (int j = 0; j < n; j++) {
+            drained[j] = queue.extractMin();
+        }
+        long end = System.nanoTime();
+        result.append((end - start) / n).append(", ");
+        start = System.nanoTime();
+        for (Item item : drained) {
+            queue.insert(item);
+        }
+        end = System.nanoTime();
+        result.append((end - start) / n).append("; ");
+    }
+}
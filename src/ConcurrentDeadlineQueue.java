@@ -0,0 +1,203 @@
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * ConcurrentDeadlineQueue is a relaxed multi-producer/multi-consumer deadline queue (a "MultiQueue").
+ * <p>
+ * Items are spread over several independent MinHeaps, each guarded by its own lock.
+ * Insert puts an item into a random heap that is not locked. Poll looks at two random heaps
+ * and extracts from the one with the sooner cached minimum. Threads rarely meet on the same lock,
+ * so throughput scales with cores. In exchange the returned item is only close to the global minimum,
+ * not always exactly the global minimum.
+ */
+public class ConcurrentDeadlineQueue {
+
+    private static final int EMPTY = Integer.MAX_VALUE;
+    // keep every cached minimum on its own cache line
+    private static final int STRIDE = 16;
+    private static final int HEAPS_PER_THREAD = 2;
+
+    private final MinHeap[] heaps;
+    private final ReentrantLock[] locks;
+    // cached deadline of the top of each heap, EMPTY if the heap is empty
+    private final AtomicIntegerArray minDeadlines;
+    private final LongAdder size;
+
+    // Constructor
+    public ConcurrentDeadlineQueue(int threads) {
+        int n = Math.max(2, HEAPS_PER_THREAD * threads);
+        this.heaps = new MinHeap[n];
+        this.locks = new ReentrantLock[n];
+        this.minDeadlines = new AtomicIntegerArray(n * STRIDE);
+        this.size = new LongAdder();
+        for (int i = 0; i < n; i++) {
+            heaps[i] = new MinHeap(16);
+            locks[i] = new ReentrantLock();
+            minDeadlines.set(i * STRIDE, EMPTY);
+        }
+    }
+
+    /**
+     * Insert a new item into a random unlocked heap
+     *
+     * @param newItem a new item created by users
+     */
+    public void insert(Item newItem) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int i = random.nextInt(heaps.length);
+            ReentrantLock lock = locks[i];
+            if (lock.tryLock()) {
+                try {
+                    heaps[i].insert(newItem);
+                    minDeadlines.set(i * STRIDE, heaps[i].peek().getDeadline());
+                } finally {
+                    lock.unlock();
+                }
+                size.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Extract an item with one of the soonest deadlines
+     *
+     * @return an item close to the soonest deadline, or null if the queue is empty
+     */
+    public Item poll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int i = random.nextInt(heaps.length);
+            int j = random.nextInt(heaps.length);
+            int minI = minDeadlines.get(i * STRIDE);
+            int minJ = minDeadlines.get(j * STRIDE);
+            if (minJ < minI) {
+                i = j;
+                minI = minJ;
+            }
+            if (minI == EMPTY) {
+                // both samples are empty, make sure the whole queue is empty before giving up
+                i = firstNonEmpty();
+                if (i < 0) return null;
+            }
+            ReentrantLock lock = locks[i];
+            if (lock.tryLock()) {
+                try {
+                    MinHeap heap = heaps[i];
+                    if (heap.size == 0) continue;
+                    Item min = heap.extractMin();
+                    minDeadlines.set(i * STRIDE, heap.size == 0 ? EMPTY : heap.peek().getDeadline());
+                    size.decrement();
+                    return min;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Scan all heaps for one that holds an item
+     *
+     * @return heap index, or -1 if all heaps are empty
+     */
+    private int firstNonEmpty() {
+        for (int i = 0; i < heaps.length; i++) {
+            if (minDeadlines.get(i * STRIDE) != EMPTY) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Number of stored items, exact only when no thread is inserting or polling
+     *
+     * @return queue size
+     */
+    public int size() {
+        return (int) size.sum();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // for empirical analysis
+        // every line is "<queue>: ops/ms, ..." for 1, 2, 4, ... producer and consumer threads each
+        Item[] warehouseItems = GUI.generateItems("warehouseData" + (args.length > 0 ? args[0] : "20") + ".txt");
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        StringBuilder multiQueueResult = new StringBuilder("multi-queue: ");
+        StringBuilder lockedHeapResult = new StringBuilder("synchronized MinHeap: ");
+        StringBuilder blockingQueueResult = new StringBuilder("PriorityBlockingQueue: ");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ConcurrentDeadlineQueue multiQueue = new ConcurrentDeadlineQueue(2 * threads);
+            multiQueueResult.append(throughput(warehouseItems, threads, multiQueue::insert, multiQueue::poll))
+                    .append(", ");
+
+            MinHeap minHeap = new MinHeap(warehouseItems.length);
+            lockedHeapResult.append(throughput(warehouseItems, threads,
+                    item -> {
+                        synchronized (minHeap) {
+                            minHeap.insert(item);
+                        }
+                    },
+                    () -> {
+                        synchronized (minHeap) {
+                            return minHeap.size == 0 ? null : minHeap.extractMin();
+                        }
+                    })).append(", ");
+
+            PriorityBlockingQueue<Item> blockingQueue = new PriorityBlockingQueue<>(warehouseItems.length,
+                    Comparator.comparingInt(Item::getDeadline));
+            blockingQueueResult.append(throughput(warehouseItems, threads, blockingQueue::add, blockingQueue::poll))
+                    .append(", ");
+        }
+        System.out.println(multiQueueResult.toString().trim());
+        System.out.println(lockedHeapResult.toString().trim());
+        System.out.println(blockingQueueResult.toString().trim());
+    }
+
+    /**
+     * Let producer threads insert all items while the same number of consumer threads poll them out again
+     *
+     * @param warehouseItems all items
+     * @param threads        number of producers, and of consumers
+     * @param insert         insert operation of the queue under test
+     * @param poll           poll operation of the queue under test, null when empty
+     * @return operations (inserts + polls) per millisecond
+     */
+    private static long throughput(Item[] warehouseItems, int threads, Consumer<Item> insert, Supplier<Item> poll)
+            throws InterruptedException {
+        int n = warehouseItems.length;
+        AtomicInteger consumed = new AtomicInteger();
+        Thread[] workers = new Thread[2 * threads];
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) n * t / threads);
+            int to = (int) ((long) n * (t + 1) / threads);
+            workers[t] = new Thread(() -> {
+                for (int k = from; k < to; k++) {
+                    insert.accept(warehouseItems[k]);
+                }
+            });
+            workers[threads + t] = new Thread(() -> {
+                while (consumed.get() < n) {
+                    if (poll.get() != null) consumed.incrementAndGet();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long end = System.nanoTime();
+        return 2L * n * 1000000 / Math.max(1, end - start);
+    }
+}
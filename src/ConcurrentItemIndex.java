@@ -0,0 +1,262 @@
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * ConcurrentItemIndex lets any number of threads search by id while intake threads keep adding items.
+ * <p>
+ * The index is a persistent red black tree: nodes are never modified after construction. An add copies only
+ * the O(log n) nodes on the path to the new leaf (Okasaki's insertion) and then publishes the new root
+ * through a volatile field. A reader reads the root once and walks an immutable tree, so it never blocks,
+ * never retries and never sees a half finished rotation. Writers are serialized among themselves.
+ */
+public class ConcurrentItemIndex {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    // current version of the tree, replaced as a whole on every add
+    private volatile Node root;
+    private volatile int size;
+
+    // set by insert when the id was already stored
+    private boolean replaced;
+
+    /**
+     * Immutable tree node
+     */
+    private static final class Node {
+        final boolean color;
+        final int key;
+        final Item item;
+        final Node left, right;
+
+        // Constructor
+        Node(boolean color, Node left, Item item, Node right) {
+            this.color = color;
+            this.key = item.getId();
+            this.item = item;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    // Constructors
+    public ConcurrentItemIndex() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    public ConcurrentItemIndex(Item[] items) {
+        this();
+        if (RedBlackTree.isSorted(items)) {
+            this.root = buildBalanced(items, 0, items.length - 1, 0, RedBlackTree.redDepth(items.length));
+            this.size = items.length;
+        } else {
+            for (Item i : items) {
+                this.add(i);
+            }
+        }
+    }
+
+    /**
+     * Build a balanced subtree from sorted items[lo..hi], see RedBlackTree for the coloring
+     *
+     * @param items    sorted items
+     * @param lo       first index
+     * @param hi       last index
+     * @param depth    depth of the subtree root
+     * @param redDepth depth whose nodes are red
+     * @return subtree root, null if empty
+     */
+    private static Node buildBalanced(Item[] items, int lo, int hi, int depth, int redDepth) {
+        if (lo > hi) return null;
+        int mid = (lo + hi) >>> 1;
+        Node left = buildBalanced(items, lo, mid - 1, depth + 1, redDepth);
+        Node right = buildBalanced(items, mid + 1, hi, depth + 1, redDepth);
+        return new Node(depth == redDepth ? RED : BLACK, left, items[mid], right);
+    }
+
+    /**
+     * Search for a given ID item, never blocks
+     *
+     * @param itemID given item ID
+     * @return item information, null if absent
+     */
+    public Item search(int itemID) {
+        Node node = root;
+        while (node != null) {
+            if (itemID == node.key) {
+                return node.item;
+            }
+            node = itemID < node.key ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Add an item, readers keep using the previous version until the new root is published
+     *
+     * @param item given item
+     */
+    public synchronized void add(Item item) {
+        replaced = false;
+        Node newRoot = insert(root, item);
+        if (newRoot.color == RED) {
+            newRoot = new Node(BLACK, newRoot.left, newRoot.item, newRoot.right);
+        }
+        root = newRoot;
+        if (!replaced) size++;
+    }
+
+    /**
+     * Insert into a subtree by copying the search path
+     *
+     * @param node subtree root
+     * @param item given item
+     * @return the new subtree root
+     */
+    private Node insert(Node node, Item item) {
+        if (node == null) return new Node(RED, null, item, null);
+        int itemID = item.getId();
+        if (itemID < node.key) {
+            return balance(node.color, insert(node.left, item), node.item, node.right);
+        } else if (itemID > node.key) {
+            return balance(node.color, node.left, node.item, insert(node.right, item));
+        }
+        // same id, replace the stored item like TreeMap.put does
+        replaced = true;
+        return new Node(node.color, node.left, item, node.right);
+    }
+
+    private static boolean isRed(Node node) {
+        return node != null && node.color == RED;
+    }
+
+    /**
+     * Create a node, resolving a red child with a red grandchild below a black node by one restructure
+     *
+     * @param color node color
+     * @param left  left subtree
+     * @param item  node item
+     * @param right right subtree
+     * @return the balanced subtree root
+     */
+    private static Node balance(boolean color, Node left, Item item, Node right) {
+        if (color == BLACK) {
+            if (isRed(left) && isRed(left.left)) {
+                return new Node(RED,
+                        new Node(BLACK, left.left.left, left.left.item, left.left.right),
+                        left.item,
+                        new Node(BLACK, left.right, item, right));
+            }
+            if (isRed(left) && isRed(left.right)) {
+                return new Node(RED,
+                        new Node(BLACK, left.left, left.item, left.right.left),
+                        left.right.item,
+                        new Node(BLACK, left.right.right, item, right));
+            }
+            if (isRed(right) && isRed(right.left)) {
+                return new Node(RED,
+                        new Node(BLACK, left, item, right.left.left),
+                        right.left.item,
+                        new Node(BLACK, right.left.right, right.item, right.right));
+            }
+            if (isRed(right) && isRed(right.right)) {
+                return new Node(RED,
+                        new Node(BLACK, left, item, right.left),
+                        right.item,
+                        new Node(BLACK, right.right.left, right.right.item, right.right.right));
+            }
+        }
+        return new Node(color, left, item, right);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // for empirical analysis
+        // every line is "<index>: reads/ms with 1, 2, 4, ... reader threads" while one intake thread keeps adding
+        Item[] warehouseItems = GUI.generateItems("warehouseData" + (args.length > 0 ? args[0] : "20") + ".txt");
+        int maxReaders = Runtime.getRuntime().availableProcessors();
+        StringBuilder persistentResult = new StringBuilder("persistent tree: ");
+        StringBuilder lockedResult = new StringBuilder("read/write locked RedBlackTree: ");
+        for (int readers = 1; readers <= maxReaders; readers *= 2) {
+            ConcurrentItemIndex index = new ConcurrentItemIndex(warehouseItems);
+            persistentResult.append(readThroughput(readers, warehouseItems.length, index::search, index::add))
+                    .append(", ");
+
+            RedBlackTree redBlackTree = new RedBlackTree(warehouseItems);
+            ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+            lockedResult.append(readThroughput(readers, warehouseItems.length,
+                    itemID -> {
+                        lock.readLock().lock();
+                        try {
+                            return redBlackTree.search(itemID);
+                        } finally {
+                            lock.readLock().unlock();
+                        }
+                    },
+                    item -> {
+                        lock.writeLock().lock();
+                        try {
+                            redBlackTree.add(item);
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                    })).append(", ");
+        }
+        System.out.println(persistentResult.toString().trim());
+        System.out.println(lockedResult.toString().trim());
+    }
+
+    /**
+     * Run reader threads doing random searches for one second while one intake thread adds new items
+     *
+     * @param readers number of reader threads
+     * @param n       number of loaded items, ids are [0, n)
+     * @param search  search operation of the index under test
+     * @param add     add operation of the index under test
+     * @return searches per millisecond over all readers
+     */
+    private static long readThroughput(int readers, int n, IntFunction<Item> search, Consumer<Item> add) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        Thread writer = new Thread(() -> {
+            int nextID = n;
+            while (running.get()) {
+                add.accept(new Item(nextID, 0, 1, nextID));
+                nextID++;
+            }
+        });
+        Thread[] readerThreads = new Thread[readers];
+        for (int t = 0; t < readers; t++) {
+            readerThreads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (running.get()) {
+                    search.apply(random.nextInt(n));
+                    count++;
+                }
+                reads.add(count);
+            });
+        }
+        writer.start();
+        for (Thread reader : readerThreads) {
+            reader.start();
+        }
+        Thread.sleep(1000);
+        running.set(false);
+        writer.join();
+        for (Thread reader : readerThreads) {
+            reader.join();
+        }
+        return reads.sum() / 1000;
+    }
+}
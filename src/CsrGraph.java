@@ -0,0 +1,242 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * CsrGraph is an immutable weighted directed graph in compressed sparse row form.
+ * <p>
+ * The outgoing edges of vertex v are targets[offsets[v]] .. targets[offsets[v + 1] - 1] with the weights at the
+ * same indices, so a whole graph is three arrays instead of one object per vertex and per edge, and Dijkstra's
+ * algorithm scans each adjacency list sequentially. Graphs are created with a Builder; edges keep the order
+ * in which they were added, as in MyGraph. Weights stay double for parity with MyGraph; when they are all
+ * small integers Dijkstra's algorithm uses a BucketQueue instead of a binary heap.
+ */
+public class CsrGraph {
+
+    private final int vertexNumber;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    // largest edge weight, -1 if some weight is not an integer in [0, BucketQueue.MAX_WEIGHT]
+    private final int maxIntegerWeight;
+
+    // Constructor
+    private CsrGraph(int vertexNumber, int[] offsets, int[] targets, double[] weights, int maxIntegerWeight) {
+        this.vertexNumber = vertexNumber;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.maxIntegerWeight = maxIntegerWeight;
+    }
+
+    /**
+     * Builder collects edges in any order and compacts them into a CsrGraph
+     */
+    public static class Builder {
+
+        private final int vertexNumber;
+        private int edgeNumber;
+        private int[] sources;
+        private int[] targets;
+        private double[] weights;
+        private int maxIntegerWeight;
+
+        // Constructor
+        public Builder(int vertexNumber) {
+            this.vertexNumber = vertexNumber;
+            this.edgeNumber = 0;
+            this.maxIntegerWeight = 0;
+            this.sources = new int[16];
+            this.targets = new int[16];
+            this.weights = new double[16];
+        }
+
+        /**
+         * Add a weighted edge
+         *
+         * @param start  the start point in a line
+         * @param end    the end point of a line
+         * @param weight the distance between the start point and the end point
+         * @return this builder
+         */
+        public Builder addEdge(int start, int end, double weight) {
+            if (start < 0 || start >= vertexNumber || end < 0 || end >= vertexNumber) {
+                throw new IndexOutOfBoundsException("No vertex " + (start < 0 || start >= vertexNumber ? start : end) + ".");
+            }
+            if (!(weight >= 0)) throw new IllegalArgumentException("Edge weight must not be negative.");
+            if (edgeNumber == sources.length) {
+                sources = Arrays.copyOf(sources, 2 * edgeNumber);
+                targets = Arrays.copyOf(targets, 2 * edgeNumber);
+                weights = Arrays.copyOf(weights, 2 * edgeNumber);
+            }
+            sources[edgeNumber] = start;
+            targets[edgeNumber] = end;
+            weights[edgeNumber] = weight;
+            edgeNumber++;
+            if (weight <= BucketQueue.MAX_WEIGHT && weight == Math.floor(weight)) {
+                if (maxIntegerWeight >= 0) maxIntegerWeight = Math.max(maxIntegerWeight, (int) weight);
+            } else {
+                maxIntegerWeight = -1;
+            }
+            return this;
+        }
+
+        /**
+         * Group the edges by start vertex with a stable counting sort, O(V + E)
+         *
+         * @return the graph
+         */
+        public CsrGraph build() {
+            int[] offsets = new int[vertexNumber + 1];
+            for (int e = 0; e < edgeNumber; e++) {
+                offsets[sources[e] + 1]++;
+            }
+            for (int v = 0; v < vertexNumber; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] next = Arrays.copyOf(offsets, vertexNumber);
+            int[] sortedTargets = new int[edgeNumber];
+            double[] sortedWeights = new double[edgeNumber];
+            for (int e = 0; e < edgeNumber; e++) {
+                int slot = next[sources[e]]++;
+                sortedTargets[slot] = targets[e];
+                sortedWeights[slot] = weights[e];
+            }
+            return new CsrGraph(vertexNumber, offsets, sortedTargets, sortedWeights, maxIntegerWeight);
+        }
+    }
+
+    // get the number of vertices in the current graph
+    public int getVertexNumber() {
+        return vertexNumber;
+    }
+
+    // get the number of edges in the current graph
+    public int getEdgeNumber() {
+        return targets.length;
+    }
+
+    /**
+     * Whether all edge weights are small non-negative integers, so that Dijkstra's algorithm uses buckets
+     *
+     * @return true: bucket queue possible
+     */
+    public boolean hasSmallIntegerWeights() {
+        return maxIntegerWeight >= 0;
+    }
+
+    /**
+     * Compute the shortest distance between the start vertex and all other vertices in the graph.
+     * The graph is only read, so several threads can search it at once with one workspace each.
+     *
+     * @param start     the start vertex
+     * @param workspace receives the distances and predecessors, see SearchWorkspace
+     */
+    public void dijkstra(int start, SearchWorkspace workspace) {
+        workspace.checkCapacity(vertexNumber);
+        workspace.begin(start);
+        if (hasSmallIntegerWeights()) {
+            dijkstraBucket(start, workspace);
+        } else {
+            dijkstraHeap(start, workspace);
+        }
+    }
+
+    private void dijkstraBucket(int start, SearchWorkspace workspace) {
+        BucketQueue queue = workspace.bucketQueue(maxIntegerWeight);
+        queue.insertOrDecrease(start, 0);
+
+        while (!queue.isEmpty()) {
+            int next = queue.extractMin();
+            double distance = workspace.getDistance(next);
+            for (int e = offsets[next], last = offsets[next + 1]; e < last; e++) {
+                int end = targets[e];
+                double newDistance = distance + weights[e];
+                if (newDistance < workspace.getDistance(end)) {
+                    workspace.update(end, newDistance, next);
+                    queue.insertOrDecrease(end, (long) newDistance);
+                }
+            }
+        }
+    }
+
+    private void dijkstraHeap(int start, SearchWorkspace workspace) {
+        DistanceHeap queue = workspace.distanceHeap();
+        queue.insertOrDecrease(start, 0);
+
+        while (!queue.isEmpty()) {
+            int next = queue.extractMin();
+            double distance = workspace.getDistance(next);
+            for (int e = offsets[next], last = offsets[next + 1]; e < last; e++) {
+                int end = targets[e];
+                double newDistance = distance + weights[e];
+                // settled vertices never pass this test since weights are not negative
+                if (newDistance < workspace.getDistance(end)) {
+                    workspace.update(end, newDistance, next);
+                    queue.insertOrDecrease(end, newDistance);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis against MyGraph and the reference implementation
+        // every line is "<graph>: dijkstra ns" for test-f3-1..5, then graphData3..499
+        int[] testSizes = {300, 1000, 5000, 25000, 50000};
+        int runs = 10;
+        StringBuilder myGraphResult = new StringBuilder("MyGraph: ");
+        StringBuilder csrResult = new StringBuilder("CsrGraph: ");
+        StringBuilder csrHeapResult = new StringBuilder("CsrGraph, binary heap only: ");
+        StringBuilder referenceResult = new StringBuilder("reference: ");
+        for (int i = 1; i <= testSizes.length + 497; i++) {
+            String fileName = i <= testSizes.length ? "test-f3-" + i + ".txt" : "graphData" + (i - testSizes.length + 2) + ".txt";
+            int vertexNumber = i <= testSizes.length ? testSizes[i - 1] : 100 * (i - testSizes.length + 2);
+            long start, end, duration;
+
+            MyGraph myGraph = GUI.initializeMyGraph(fileName, vertexNumber);
+            duration = 0;
+            for (int j = 0; j < runs; j++) {
+                start = System.nanoTime();
+                myGraph.dijkstra(myGraph.getVertex(0));
+                end = System.nanoTime();
+                duration = duration + end - start;
+            }
+            myGraphResult.append(duration / runs).append(", ");
+
+            CsrGraph csrGraph = GUI.initializeCsrGraph(fileName, vertexNumber);
+            SearchWorkspace workspace = new SearchWorkspace(vertexNumber);
+            duration = 0;
+            for (int j = 0; j < runs; j++) {
+                start = System.nanoTime();
+                csrGraph.dijkstra(0, workspace);
+                end = System.nanoTime();
+                duration = duration + end - start;
+            }
+            csrResult.append(duration / runs).append(", ");
+
+            duration = 0;
+            for (int j = 0; j < runs; j++) {
+                start = System.nanoTime();
+                workspace.begin(0);
+                csrGraph.dijkstraHeap(0, workspace);
+                end = System.nanoTime();
+                duration = duration + end - start;
+            }
+            csrHeapResult.append(duration / runs).append(", ");
+
+            DijkstrasShortestPathAdjacencyList reference = GUI.initializeGeekGraph(fileName, vertexNumber);
+            duration = 0;
+            for (int j = 0; j < runs; j++) {
+                start = System.nanoTime();
+                // no vertex has id -1, so the search settles the whole graph
+                reference.dijkstra(0, -1);
+                end = System.nanoTime();
+                duration = duration + end - start;
+            }
+            referenceResult.append(duration / runs).append(", ");
+        }
+        System.out.println(myGraphResult.toString().trim());
+        System.out.println(csrResult.toString().trim());
+        System.out.println(csrHeapResult.toString().trim());
+        System.out.println(referenceResult.toString().trim());
+    }
+}
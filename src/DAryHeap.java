@@ -0,0 +1,139 @@
+/**
+ * DAryHeap is a min heap ordered by deadline where every node has d children instead of two.
+ * <p>
+ * A wider node makes the tree shallower (log_d(n) levels), and the deadlines of all children of a node
+ * are stored next to each other in an int[], so one sink step scans a single cache line instead of
+ * following two item references.
+ */
+public class DAryHeap implements DeadlineQueue {
+
+    private final int arity;
+    private int size;
+    // heap order starts at index 0, children of k are d * k + 1 ... d * k + d
+    private Item[] items;
+    // deadlines[k] == items[k].getDeadline(), kept to avoid dereferencing items while comparing
+    private int[] deadlines;
+
+    // Constructor
+    public DAryHeap(int maxN, int arity) {
+        if (arity < 2) throw new IllegalArgumentException("Arity must be at least 2.");
+        this.arity = arity;
+        this.size = 0;
+        this.items = new Item[maxN];
+        this.deadlines = new int[maxN];
+    }
+
+    /**
+     * Insert a new item into the current min heap
+     *
+     * @param newItem a new item created by users
+     */
+    public void insert(Item newItem) {
+        if (size == items.length) resize(Math.max(2 * size, 1));
+        items[size] = newItem;
+        deadlines[size] = newItem.getDeadline();
+        swim(size++);
+    }
+
+    /**
+     * Move the heap into arrays of the given length
+     *
+     * @param capacity new array length
+     */
+    private void resize(int capacity) {
+        Item[] tempItems = new Item[capacity];
+        int[] tempDeadlines = new int[capacity];
+        System.arraycopy(items, 0, tempItems, 0, size);
+        System.arraycopy(deadlines, 0, tempDeadlines, 0, size);
+        items = tempItems;
+        deadlines = tempDeadlines;
+    }
+
+    /**
+     * Shift the kth item up
+     *
+     * @param k index
+     */
+    private void swim(int k) {
+        Item item = items[k];
+        int deadline = deadlines[k];
+        while (k > 0) {
+            int parent = (k - 1) / arity;
+            if (deadlines[parent] <= deadline) break;
+            items[k] = items[parent];
+            deadlines[k] = deadlines[parent];
+            k = parent;
+        }
+        items[k] = item;
+        deadlines[k] = deadline;
+    }
+
+    /**
+     * minHeapify at index k
+     *
+     * @param k index
+     */
+    private void sink(int k) {
+        Item item = items[k];
+        int deadline = deadlines[k];
+        while (true) {
+            int first = arity * k + 1;
+            if (first >= size) break;
+            // pick the smallest child
+            int last = Math.min(first + arity, size);
+            int j = first;
+            for (int c = first + 1; c < last; c++) {
+                if (deadlines[c] < deadlines[j]) j = c;
+            }
+            if (deadline <= deadlines[j]) break;
+            items[k] = items[j];
+            deadlines[k] = deadlines[j];
+            k = j;
+        }
+        items[k] = item;
+        deadlines[k] = deadline;
+    }
+
+    /**
+     * Extract the minimum element in heap
+     *
+     * @return the item with soonest deadline
+     */
+    public Item extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        Item min = items[0];
+        size--;
+        items[0] = items[size];
+        deadlines[0] = deadlines[size];
+        items[size] = null;
+        if (size > 0) sink(0);
+        return min;
+    }
+
+    /**
+     * Return the minimum item
+     *
+     * @return the item with soonest deadline
+     */
+    public Item peek() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        return items[0];
+    }
+
+    /**
+     * Build the min-heap
+     */
+    public void build() {
+        for (int i = (size - 2) / arity; i >= 0; i--) {
+            sink(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+}
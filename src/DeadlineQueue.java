@@ -0,0 +1,40 @@
+/**
+ * DeadlineQueue is the common contract of every priority queue that hands out items by soonest deadline.
+ * <p>
+ * GUI and the empirical analysis loops only talk to this interface, so the concrete queue can be switched freely.
+ */
+public interface DeadlineQueue {
+
+    /**
+     * Insert a new item into the queue
+     *
+     * @param newItem a new item created by users
+     */
+    void insert(Item newItem);
+
+    /**
+     * Extract the item with the soonest deadline
+     *
+     * @return the item with soonest deadline
+     */
+    Item extractMin();
+
+    /**
+     * Return the item with the soonest deadline without removing it
+     *
+     * @return the item with soonest deadline
+     */
+    Item peek();
+
+    /**
+     * Restore the heap order over all stored items
+     */
+    void build();
+
+    /**
+     * Number of items currently stored
+     *
+     * @return queue size
+     */
+    int size();
+}
@@ -0,0 +1,405 @@
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * DestinationQueues keeps one deadline heap per destination plus a small top heap over the destinations,
+ * ordered by the soonest deadline of each destination heap.
+ * <p>
+ * The global minimum is the minimum of the destination at the top, so extractMin and insert are
+ * O(log n + log d) for d destinations, and the soonest parcels of a single destination are read from its own
+ * heap without touching any other destination.
+ */
+public class DestinationQueues implements DeadlineQueue {
+
+    private static final int INITIAL_DESTINATIONS = 32;
+    private static final int INITIAL_HEAP = 16;
+
+    private int size;
+    // destination -> slot, slots are never released
+    private IntIntHashMap slots;
+    private int slotCount;
+    private int[] destinations;
+    private MinHeap[] queues;
+    // top heap of non-empty slots (1-based), keyed by the deadline of their minimum
+    private int topSize;
+    private int[] top;
+    // slot -> index in top, 0 if the slot is empty
+    private int[] topPositions;
+    private int[] topDeadlines;
+
+    // Constructors
+    public DestinationQueues() {
+        this.size = 0;
+        this.slots = new IntIntHashMap(INITIAL_DESTINATIONS);
+        this.slotCount = 0;
+        this.destinations = new int[INITIAL_DESTINATIONS];
+        this.queues = new MinHeap[INITIAL_DESTINATIONS];
+        this.topSize = 0;
+        this.top = new int[INITIAL_DESTINATIONS + 1];
+        this.topPositions = new int[INITIAL_DESTINATIONS];
+        this.topDeadlines = new int[INITIAL_DESTINATIONS];
+    }
+
+    /**
+     * Create queues holding all given items: the items are partitioned by destination
+     * and every destination heap is heapified bottom-up, O(n) in total
+     *
+     * @param initialItems all items
+     */
+    public DestinationQueues(Item[] initialItems) {
+        this();
+        int[] counts = new int[INITIAL_DESTINATIONS];
+        for (Item item : initialItems) {
+            int slot = slotOf(item.getDestination(), true);
+            if (slot == counts.length) {
+                int[] temp = new int[2 * counts.length];
+                System.arraycopy(counts, 0, temp, 0, counts.length);
+                counts = temp;
+            }
+            counts[slot]++;
+        }
+        Item[][] partitions = new Item[slotCount][];
+        for (int s = 0; s < slotCount; s++) {
+            partitions[s] = new Item[counts[s]];
+            counts[s] = 0;
+        }
+        for (Item item : initialItems) {
+            int slot = slots.get(item.getDestination());
+            partitions[slot][counts[slot]++] = item;
+        }
+        for (int s = 0; s < slotCount; s++) {
+            queues[s] = new MinHeap(partitions[s]);
+            refresh(s);
+        }
+        size = initialItems.length;
+    }
+
+    /**
+     * Find the slot of a destination
+     *
+     * @param destination given destination
+     * @param create      whether an unknown destination gets a new empty slot
+     * @return slot index, IntIntHashMap.MISSING if unknown and not created
+     */
+    private int slotOf(int destination, boolean create) {
+        int slot = slots.get(destination);
+        if (slot != IntIntHashMap.MISSING || !create) return slot;
+        if (slotCount == queues.length) grow(2 * queues.length);
+        slot = slotCount++;
+        slots.put(destination, slot);
+        destinations[slot] = destination;
+        queues[slot] = new MinHeap(INITIAL_HEAP);
+        return slot;
+    }
+
+    /**
+     * Move the per-slot arrays into arrays of the given length
+     *
+     * @param capacity new number of slots
+     */
+    private void grow(int capacity) {
+        int[] tempDestinations = new int[capacity];
+        System.arraycopy(destinations, 0, tempDestinations, 0, slotCount);
+        destinations = tempDestinations;
+        MinHeap[] tempQueues = new MinHeap[capacity];
+        System.arraycopy(queues, 0, tempQueues, 0, slotCount);
+        queues = tempQueues;
+        int[] tempTop = new int[capacity + 1];
+        System.arraycopy(top, 1, tempTop, 1, topSize);
+        top = tempTop;
+        int[] tempPositions = new int[capacity];
+        System.arraycopy(topPositions, 0, tempPositions, 0, slotCount);
+        topPositions = tempPositions;
+        int[] tempDeadlines = new int[capacity];
+        System.arraycopy(topDeadlines, 0, tempDeadlines, 0, slotCount);
+        topDeadlines = tempDeadlines;
+    }
+
+    /**
+     * Insert a new item into the heap of its destination
+     *
+     * @param newItem a new item created by users
+     */
+    public void insert(Item newItem) {
+        int slot = slotOf(newItem.getDestination(), true);
+        queues[slot].insert(newItem);
+        size++;
+        if (topPositions[slot] == 0) {
+            topDeadlines[slot] = newItem.getDeadline();
+            top[++topSize] = slot;
+            topPositions[slot] = topSize;
+            swim(topSize);
+        } else if (newItem.getDeadline() < topDeadlines[slot]) {
+            topDeadlines[slot] = newItem.getDeadline();
+            swim(topPositions[slot]);
+        }
+    }
+
+    /**
+     * Extract the minimum element over all destinations
+     *
+     * @return the item with soonest deadline
+     */
+    public Item extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        int slot = top[1];
+        Item min = queues[slot].extractMin();
+        size--;
+        refresh(slot);
+        return min;
+    }
+
+    /**
+     * Return the minimum item over all destinations
+     *
+     * @return the item with soonest deadline
+     */
+    public Item peek() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        return queues[top[1]].peek();
+    }
+
+    /**
+     * Return the item with the soonest deadline for one destination without removing it
+     *
+     * @param destination given destination
+     * @return the soonest item going to the destination
+     */
+    public Item peekDestination(int destination) {
+        return queues[nonEmptySlot(destination)].peek();
+    }
+
+    /**
+     * Extract the item with the soonest deadline for one destination
+     *
+     * @param destination given destination
+     * @return the soonest item going to the destination
+     */
+    public Item extractMinDestination(int destination) {
+        int slot = nonEmptySlot(destination);
+        Item min = queues[slot].extractMin();
+        size--;
+        refresh(slot);
+        return min;
+    }
+
+    /**
+     * Extract every item of one destination whose deadline is not later than the given one, soonest first.
+     * This is one route batch: the other destinations are not touched.
+     *
+     * @param destination given destination
+     * @param deadline    the latest deadline to extract
+     * @param buffer      caller supplied output array, at most buffer.length items are extracted
+     * @return number of items written to buffer
+     */
+    public int drainDestinationUntil(int destination, int deadline, Item[] buffer) {
+        int slot = slotOf(destination, false);
+        if (slot == IntIntHashMap.MISSING || queues[slot].size() == 0) return 0;
+        int count = queues[slot].drainUntil(deadline, buffer);
+        size -= count;
+        refresh(slot);
+        return count;
+    }
+
+    /**
+     * Number of items stored for one destination
+     *
+     * @param destination given destination
+     * @return items going to the destination
+     */
+    public int size(int destination) {
+        int slot = slotOf(destination, false);
+        return slot == IntIntHashMap.MISSING ? 0 : queues[slot].size();
+    }
+
+    private int nonEmptySlot(int destination) {
+        int slot = slotOf(destination, false);
+        if (slot == IntIntHashMap.MISSING || queues[slot].size() == 0) {
+            throw new IllegalStateException("No item for destination " + destination + ".");
+        }
+        return slot;
+    }
+
+    /**
+     * Update the top heap after the minimum of a destination heap changed
+     *
+     * @param slot slot of the destination
+     */
+    private void refresh(int slot) {
+        int k = topPositions[slot];
+        if (queues[slot].size() == 0) {
+            if (k == 0) return;
+            // move the last slot into the hole and fix it in either direction
+            int last = top[topSize--];
+            topPositions[slot] = 0;
+            if (last == slot) return;
+            top[k] = last;
+            topPositions[last] = k;
+            swim(k);
+            sink(topPositions[last]);
+            return;
+        }
+        int deadline = queues[slot].peek().getDeadline();
+        if (k == 0) {
+            topDeadlines[slot] = deadline;
+            top[++topSize] = slot;
+            topPositions[slot] = topSize;
+            swim(topSize);
+        } else if (deadline < topDeadlines[slot]) {
+            topDeadlines[slot] = deadline;
+            swim(k);
+        } else if (deadline > topDeadlines[slot]) {
+            topDeadlines[slot] = deadline;
+            sink(k);
+        }
+    }
+
+    private void swim(int k) {
+        while (k > 1 && more(k / 2, k)) {
+            swap(k, k / 2);
+            k = k / 2;
+        }
+    }
+
+    private void sink(int k) {
+        while (2 * k <= topSize) {
+            int j = 2 * k;
+            if (j < topSize && more(j, j + 1)) j++;
+            if (!more(k, j)) break;
+            swap(k, j);
+            k = j;
+        }
+    }
+
+    private boolean more(int i, int j) {
+        return topDeadlines[top[i]] > topDeadlines[top[j]];
+    }
+
+    private void swap(int i, int j) {
+        int temp = top[i];
+        top[i] = top[j];
+        top[j] = temp;
+        topPositions[top[i]] = i;
+        topPositions[top[j]] = j;
+    }
+
+    /**
+     * Rebuild every destination heap and the top heap
+     */
+    public void build() {
+        topSize = 0;
+        for (int s = 0; s < slotCount; s++) {
+            queues[s].build();
+            topPositions[s] = 0;
+            refresh(s);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of destinations that currently have at least one item
+     *
+     * @return non-empty destinations
+     */
+    public int destinationCount() {
+        return topSize;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis against the single global min-heap
+        // every line is "<queue>: extractMin ns/op, soonest-of-one-destination ns/op, route batch ns/item"
+        // the global heap answers a per-destination query by extracting until the destination shows up
+        // and inserting the skipped items back
+        int[] dataSizes = {12, 16, 20};
+        int queries = 1000;
+        StringBuilder heapResult = new StringBuilder("global heap: ");
+        StringBuilder destinationResult = new StringBuilder("per destination: ");
+        Item[] warehouseItems;
+        long start, end;
+        for (int i : dataSizes) {
+            warehouseItems = GUI.generateItems("warehouseData" + i + ".txt");
+            Random random = new Random(i);
+            int[] targets = new int[queries];
+            for (int q = 0; q < queries; q++) {
+                targets[q] = warehouseItems[random.nextInt(warehouseItems.length)].getDestination();
+            }
+            Item[] buffer = new Item[warehouseItems.length];
+
+            MinHeap minHeap = new MinHeap(warehouseItems);
+            DestinationQueues destinationQueues = new DestinationQueues(warehouseItems);
+            heapResult.append(extractCost(minHeap, queries)).append(", ");
+            destinationResult.append(extractCost(destinationQueues, queries)).append(", ");
+
+            start = System.nanoTime();
+            for (int destination : targets) {
+                int skipped = 0;
+                while (minHeap.size() > 0 && minHeap.peek().getDestination() != destination) {
+                    buffer[skipped++] = minHeap.extractMin();
+                }
+                if (minHeap.size() > 0) minHeap.extractMin();
+                for (int s = 0; s < skipped; s++) {
+                    minHeap.insert(buffer[s]);
+                }
+            }
+            end = System.nanoTime();
+            heapResult.append((end - start) / queries).append(", ");
+
+            start = System.nanoTime();
+            for (int destination : targets) {
+                if (destinationQueues.size(destination) > 0) destinationQueues.extractMinDestination(destination);
+            }
+            end = System.nanoTime();
+            destinationResult.append((end - start) / queries).append(", ");
+
+            // route batch: everything of one destination due by the deadline of the first tenth of the queue
+            int skipped = minHeap.extractTopK(minHeap.size() / 10, buffer);
+            int cutoff = buffer[skipped - 1].getDeadline();
+            for (int s = 0; s < skipped; s++) {
+                minHeap.insert(buffer[s]);
+            }
+            int destination = targets[0];
+            int batch = 0;
+            start = System.nanoTime();
+            skipped = 0;
+            while (minHeap.size() > 0 && minHeap.peek().getDeadline() <= cutoff) {
+                Item item = minHeap.extractMin();
+                if (item.getDestination() == destination) {
+                    batch++;
+                } else {
+                    buffer[skipped++] = item;
+                }
+            }
+            for (int s = 0; s < skipped; s++) {
+                minHeap.insert(buffer[s]);
+            }
+            end = System.nanoTime();
+            heapResult.append(batch == 0 ? 0 : (end - start) / batch).append("; ");
+
+            start = System.nanoTime();
+            batch = destinationQueues.drainDestinationUntil(destination, cutoff, buffer);
+            end = System.nanoTime();
+            destinationResult.append(batch == 0 ? 0 : (end - start) / batch).append("; ");
+        }
+        System.out.println(heapResult.toString().trim());
+        System.out.println(destinationResult.toString().trim());
+    }
+
+    /**
+     * Measure the average time of extracting the given number of global minima
+     *
+     * @param queue   a full queue
+     * @param queries number of extractions
+     * @return ns per extractMin
+     */
+    private static long extractCost(DeadlineQueue queue, int queries) {
+        long start = System.nanoTime();
+        for (int q = 0; q < queries && queue.size() > 0; q++) {
+            queue.extractMin();
+        }
+        long end = System.nanoTime();
+        return (end - start) / queries;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * DistanceHeap is an indexed binary min heap of vertex ids keyed by their tentative distance.
+ * <p>
+ * The position of every vertex in the heap is kept in an array, so a shorter distance found during Dijkstra's
+ * algorithm moves the vertex up in O(log n) instead of searching for it (PriorityQueue.remove is O(n)).
+ * Everything is stored in primitive arrays sized by the number of vertices.
+ */
+public class DistanceHeap {
+
+    private int size;
+    // vertex ids, index 0 unused like MinHeap
+    private int[] heap;
+    // vertex id -> index in heap, 0 if the vertex is not in the heap
+    private int[] positions;
+    private double[] keys;
+
+    // Constructor
+    public DistanceHeap(int vertexNumber) {
+        this.size = 0;
+        this.heap = new int[vertexNumber + 1];
+        this.positions = new int[vertexNumber];
+        this.keys = new double[vertexNumber];
+    }
+
+    /**
+     * Insert a vertex, or lower its key if it is already in the heap
+     *
+     * @param vertex   vertex id
+     * @param distance new tentative distance, no larger than the current key if present
+     */
+    public void insertOrDecrease(int vertex, double distance) {
+        int k = positions[vertex];
+        if (k == 0) {
+            k = ++size;
+            heap[k] = vertex;
+            positions[vertex] = k;
+        } else if (distance > keys[vertex]) {
+            throw new IllegalArgumentException("New distance is larger than the current one.");
+        }
+        keys[vertex] = distance;
+        swim(k);
+    }
+
+    /**
+     * Extract the vertex with the smallest key
+     *
+     * @return vertex id
+     */
+    public int extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        int min = heap[1];
+        positions[min] = 0;
+        int last = heap[size--];
+        if (size > 0) {
+            heap[1] = last;
+            positions[last] = 1;
+            sink(1);
+        }
+        return min;
+    }
+
+    /**
+     * Shift the kth vertex up
+     *
+     * @param k index
+     */
+    private void swim(int k) {
+        int vertex = heap[k];
+        double key = keys[vertex];
+        while (k > 1 && keys[heap[k / 2]] > key) {
+            heap[k] = heap[k / 2];
+            positions[heap[k]] = k;
+            k = k / 2;
+        }
+        heap[k] = vertex;
+        positions[vertex] = k;
+    }
+
+    /**
+     * minHeapify at index k
+     *
+     * @param k index
+     */
+    private void sink(int k) {
+        int vertex = heap[k];
+        double key = keys[vertex];
+        while (2 * k <= size) {
+            int j = 2 * k;
+            if (j < size && keys[heap[j]] > keys[heap[j + 1]]) j++;
+            if (key <= keys[heap[j]]) break;
+            heap[k] = heap[j];
+            positions[heap[k]] = k;
+            k = j;
+        }
+        heap[k] = vertex;
+        positions[vertex] = k;
+    }
+
+    public boolean contains(int vertex) {
+        return positions[vertex] != 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every vertex still in the heap, O(size) so that the heap can be reused for the next search
+     */
+    public void clear() {
+        for (int k = 1; k <= size; k++) {
+            positions[heap[k]] = 0;
+        }
+        size = 0;
+    }
+}
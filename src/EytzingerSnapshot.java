@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * EytzingerSnapshot is an immutable copy of a RedBlackTree for lookup-heavy phases.
+ * <p>
+ * The ids are stored in an int[] in Eytzinger (BFS) order: the children of slot k are 2k and 2k + 1.
+ * A search is the same walk as in a perfectly balanced tree, but it only reads one int array, the next slot is
+ * computed instead of branched to, and the top levels of all searches share the first few cache lines.
+ * The 16 descendants four levels below slot k are the consecutive slots 16k ... 16k + 15, so the deep levels
+ * of a search touch one or two cache lines per four levels and the hardware prefetcher sees nearby accesses.
+ * A snapshot remembers the tree version it was built from and becomes invalid as soon as the tree changes.
+ */
+public class EytzingerSnapshot {
+
+    // keys[k] and items[k] for k in [1, n], slot 0 unused
+    private final int[] keys;
+    private final Item[] items;
+    private final int n;
+    private final RedBlackTree source;
+    private final int version;
+
+    // Constructor
+    private EytzingerSnapshot(RedBlackTree source) {
+        this.source = source;
+        this.version = source.getVersion();
+        this.n = source.size();
+        this.keys = new int[n + 1];
+        this.items = new Item[n + 1];
+        Item[] sorted = new Item[n];
+        source.toSortedArray(sorted);
+        fill(sorted, 0, 1);
+    }
+
+    /**
+     * Freeze the current contents of a tree, O(n)
+     *
+     * @param tree given tree
+     * @return a snapshot that is valid until the tree changes
+     */
+    public static EytzingerSnapshot of(RedBlackTree tree) {
+        return new EytzingerSnapshot(tree);
+    }
+
+    /**
+     * Place sorted items into the subtree of slot k by an in-order walk
+     *
+     * @param sorted items in id order
+     * @param i      index of the next sorted item to place
+     * @param k      Eytzinger slot
+     * @return index of the next sorted item after this subtree
+     */
+    private int fill(Item[] sorted, int i, int k) {
+        if (k <= n) {
+            i = fill(sorted, i, 2 * k);
+            keys[k] = sorted[i].getId();
+            items[k] = sorted[i++];
+            i = fill(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Whether the snapshot still reflects the tree
+     *
+     * @param tree given tree
+     * @return true: built from this tree and the tree has not changed since
+     */
+    public boolean isValidFor(RedBlackTree tree) {
+        return tree == source && version == tree.getVersion();
+    }
+
+    /**
+     * Search for a given ID item
+     *
+     * @param itemID given item ID
+     * @return item information, null if absent
+     */
+    public Item search(int itemID) {
+        int k = 1;
+        while (k <= n) {
+            // go right when the key is smaller, no data dependent branch
+            k = 2 * k + (keys[k] < itemID ? 1 : 0);
+        }
+        // undo the right turns taken after the last left turn, that left turn was at the lower bound
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k != 0 && keys[k] == itemID ? items[k] : null;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis
+        // line 1: tree search ns/op, line 2: snapshot search ns/op, line 3: snapshot build ms
+        Random random = new Random();
+        int dataSize = 26;
+        StringBuilder treeResult = new StringBuilder();
+        StringBuilder snapshotResult = new StringBuilder();
+        StringBuilder buildResult = new StringBuilder();
+        for (int i = 6; i < dataSize; i++) {
+            Item[] warehouseItems = GUI.generateItems("warehouseData" + i + ".txt");
+            RedBlackTree redBlackTree = new RedBlackTree(warehouseItems);
+            long start = System.nanoTime();
+            EytzingerSnapshot snapshot = EytzingerSnapshot.of(redBlackTree);
+            long end = System.nanoTime();
+            buildResult.append((end - start) / 1000000).append(", ");
+            treeResult.append(ArenaRedBlackTree.searchCost(redBlackTree, random)).append(", ");
+
+            long duration = 0;
+            for (int j = 0; j < 10000; j++) {
+                int itemID = random.nextInt(warehouseItems.length);
+                start = System.nanoTime();
+                snapshot.search(itemID);
+                end = System.nanoTime();
+                duration = duration + end - start;
+            }
+            snapshotResult.append(duration / 10000).append(", ");
+        }
+        System.out.println(treeResult.toString().trim());
+        System.out.println(snapshotResult.toString().trim());
+        System.out.println(buildResult.toString().trim());
+    }
+}
@@ -6,7 +6,19 @@ import java.util.*;
  */
 public class GUI {
 
-    private static final int QUIT_OPTION = 6;
+    private static final int QUIT_OPTION = 7;
+    // true: use the primitive packed min-heap, false: use the Item[] min-heap
+    private static final boolean PACKED_HEAP = true;
+    // true: keep the parcels in the columns of an ItemStorage, with a RowMinHeap and the store's id index over
+    // rows; Item objects are only built for output and a linear scan takes the place of the Java library references.
+    // Only for warehouses too large for the Item path, which is the one that runs the tree, heaps and references
+    private static final boolean ROW_STORE = false;
+    // row based mode only, true: keep the records outside the Java heap in an OffHeapItemStore; the RowMinHeap
+    // (8 bytes per row) stays on the heap, and a large file on a small -Xmx needs -XX:MaxDirectMemorySize
+    private static final boolean OFF_HEAP_STORE = false;
+    private static final String REFERENCE_HEADER = ROW_STORE
+            ? "------------------------- Linear Scan Output -----------------------------"
+            : "------------------------- Java Library Output ----------------------------";
 
     /**
      * Generate an item array to contain all items based on data generated by WarehouseDataGenerator
@@ -16,25 +28,47 @@ public class GUI {
      * @throws IOException file not exists
      */
     public static Item[] generateItems(String fileName) throws IOException {
-        File file = new File(fileName);
-        InputStreamReader reader = new InputStreamReader(new FileInputStream(file));
-        BufferedReader bufferedReader = new BufferedReader(reader);
-        String line;
-        ArrayList<Item> itemArrayList = new ArrayList<>();
-        int id, deadline, destination, location;
-        while ((line = bufferedReader.readLine()) != null) {
-            String[] temp = line.split(",");
-            id = Integer.parseInt(temp[0]);
-            deadline = Integer.parseInt(temp[1]);
-            destination = Integer.parseInt(temp[2]);
-            location = Integer.parseInt(temp[3]);
-            itemArrayList.add(new Item(id, deadline, destination, location));
+        // parse straight into columns, Item objects are created once at the end
+        return ItemStore.load(fileName).toItems();
+    }
+
+    /**
+     * Load the data generated by WarehouseDataGenerator into columns without creating any Item object
+     *
+     * @param fileName the input file name
+     * @return store holding one row per parcel
+     * @throws IOException file not exists
+     */
+    public static ItemStorage generateStore(String fileName) throws IOException {
+        return OFF_HEAP_STORE ? OffHeapItemStore.load(fileName) : ItemStore.load(fileName);
+    }
+
+    /**
+     * Find the row with the soonest deadline by a linear scan, the reference result of the row based mode
+     *
+     * @param store the parcels
+     * @return row, ItemStorage.MISSING if the store is empty
+     */
+    private static int scanSoonest(ItemStorage store) {
+        int soonest = ItemStorage.MISSING;
+        for (int row = 0; row < store.size(); row++) {
+            if (soonest == ItemStorage.MISSING || store.getDeadline(row) < store.getDeadline(soonest)) soonest = row;
         }
-        Item[] items = new Item[itemArrayList.size()];
-        for (int i = 0; i < itemArrayList.size(); i++) {
-            items[i] = itemArrayList.get(i);
+        return soonest;
+    }
+
+    /**
+     * Find the row of an item ID by a linear scan, the reference result of the row based mode
+     *
+     * @param store  the parcels
+     * @param itemID given item ID
+     * @return row, ItemStorage.MISSING if absent
+     */
+    private static int scanForId(ItemStorage store, int itemID) {
+        for (int row = store.size() - 1; row >= 0; row--) {
+            if (store.getId(row) == itemID) return row;
         }
-        return items;
+        return ItemStorage.MISSING;
     }
 
 
@@ -64,6 +98,32 @@ public class GUI {
         return graph;
     }
 
+    /**
+     * Read in a txt file (generated by graphDataGenerator) and create a compressed sparse row graph
+     *
+     * @param fileName    input filename
+     * @param verticesNum number of vertices
+     * @return corresponding graph
+     * @throws IOException file not exists
+     */
+    public static CsrGraph initializeCsrGraph(String fileName, int verticesNum) throws IOException {
+        File file = new File(fileName);
+        InputStreamReader reader = new InputStreamReader(new FileInputStream(file));
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String line;
+
+        CsrGraph.Builder builder = new CsrGraph.Builder(verticesNum);
+        int start, end, weight;
+        while ((line = bufferedReader.readLine()) != null) {
+            String[] temp = line.split(",");
+            start = Integer.parseInt(temp[0]);
+            end = Integer.parseInt(temp[1]);
+            weight = Integer.parseInt(temp[2]);
+            builder.addEdge(start, end, weight);
+        }
+        return builder.build();
+    }
+
     /**
      * Read in a txt file (generated by graphDataGenerator) and create a graph developed by GitHub users
      *
@@ -91,6 +151,23 @@ public class GUI {
     }
 
 
+    /**
+     * Rebuild the lookup snapshot if the tree changed since it was taken
+     *
+     * @param snapshot     current snapshot
+     * @param redBlackTree the tree behind it
+     * @return a snapshot that is valid for the tree
+     */
+    private static EytzingerSnapshot refreshSnapshot(EytzingerSnapshot snapshot, RedBlackTree redBlackTree) {
+        if (snapshot.isValidFor(redBlackTree)) return snapshot;
+        long start = System.nanoTime();
+        snapshot = EytzingerSnapshot.of(redBlackTree);
+        long end = System.nanoTime();
+        System.out.println("RBT Snapshot Rebuild Time: " + (end - start));
+        return snapshot;
+    }
+
+
     public static void main(String[] args) throws IOException {
 
         Scanner in = new Scanner(System.in);
@@ -108,31 +185,33 @@ public class GUI {
         System.out.println("|-----------------------------------------------------------------------|");
         System.out.println("Please enter the test file number:");
 
-        // Initialise an array to hole the items
+        // Initialise an array to hole the items, or the row store in row based mode
         Item[] warehouseItems = new Item[0];
+        ItemStorage store = null;
+        String itemFile = null;
 
         // Read in different test files
         int testNum = in.nextInt();
         while (testNum != 0) {
             switch (testNum) {
                 case 1:
-                    warehouseItems = generateItems("test-f1-1.txt");
+                    itemFile = "test-f1-1.txt";
                     testNum = 0;
                     break;
                 case 2:
-                    warehouseItems = generateItems("test-f1-2.txt");
+                    itemFile = "test-f1-2.txt";
                     testNum = 0;
                     break;
                 case 3:
-                    warehouseItems = generateItems("test-f1-3.txt");
+                    itemFile = "test-f1-3.txt";
                     testNum = 0;
                     break;
                 case 4:
-                    warehouseItems = generateItems("test-f1-4.txt");
+                    itemFile = "test-f1-4.txt";
                     testNum = 0;
                     break;
                 case 5:
-                    warehouseItems = generateItems("test-f1-5.txt");
+                    itemFile = "test-f1-5.txt";
                     testNum = 0;
                     break;
                 default:
@@ -141,19 +220,42 @@ public class GUI {
             }
         }
 
+        if (ROW_STORE) {
+            store = generateStore(itemFile);
+        } else {
+            warehouseItems = generateItems(itemFile);
+        }
+        int itemCount = ROW_STORE ? store.size() : warehouseItems.length;
+
         // Generate my minheap and red-black tree using the test data
-        MinHeap minHeap = null;
-        RedBlackTree redBlackTree = new RedBlackTree(warehouseItems);
+        DeadlineQueue minHeap = null;
+        // row based mode: the heap hands out rows, lookups go to the store's own id index
+        RowMinHeap rowHeap = null;
+        RedBlackTree redBlackTree = null;
+        // read-only copy of the tree for lookups, rebuilt on the next lookup after the tree changed
+        EytzingerSnapshot snapshot = null;
+        // O(1) id lookups, kept next to the tree so both can be timed on the same search
+        HashItemIndex idIndex = null;
+        // replaces minHeap on the first deadline update, the other heaps cannot find an item by id
+        IndexedMinHeap indexedHeap = null;
 
         // Java libraries (used to prove the correctness of the data structure/algorithm implemented by myself)
-        // 1. Min-heap reference
-        PriorityQueue<Item> standardMinHeap = new PriorityQueue<>(Comparator.comparingInt(Item::getDeadline));
-        standardMinHeap.addAll(Arrays.asList(warehouseItems));
-
-        // 2. Red-Black tree reference
-        TreeMap<Integer, Item> treeMap = new TreeMap<>();
-        for (Item i : warehouseItems) {
-            treeMap.put(i.getId(), i);
+        PriorityQueue<Item> standardMinHeap = null;
+        TreeMap<Integer, Item> treeMap = null;
+        if (!ROW_STORE) {
+            redBlackTree = new RedBlackTree(warehouseItems);
+            snapshot = EytzingerSnapshot.of(redBlackTree);
+            idIndex = new HashItemIndex(warehouseItems);
+
+            // 1. Min-heap reference
+            standardMinHeap = new PriorityQueue<>(Comparator.comparingInt(Item::getDeadline));
+            standardMinHeap.addAll(Arrays.asList(warehouseItems));
+
+            // 2. Red-Black tree reference
+            treeMap = new TreeMap<>();
+            for (Item i : warehouseItems) {
+                treeMap.put(i.getId(), i);
+            }
         }
 
         // Read different graph data
@@ -215,11 +317,12 @@ public class GUI {
         System.out.println("|         3. Find the shortest path to the destination place            |");
         System.out.println("|         4. Add a new item to the warehouse                            |");
         System.out.println("|         5. Add an edge to current myGraph                             |");
-        System.out.println("|         6. Quit                                                       |");
+        System.out.println("|         6. Update the deadline of an item                             |");
+        System.out.println("|         7. Quit                                                       |");
         System.out.println("|-----------------------------------------------------------------------|");
         System.out.println("| Notes:                                                                |");
         System.out.println("| Function 1, 2, and 3 are the main functionalities of this project.    |");
-        System.out.println("| Function 4 and 5 are helper functions if you'd like to add some data  |");
+        System.out.println("| Function 4, 5 and 6 are helper functions if you'd like to change data |");
         System.out.println("| to check if this program works correctly.                             |");
         System.out.println("-------------------------------------------------------------------------");
         System.out.println("Please enter the function number:");
@@ -238,50 +341,74 @@ public class GUI {
                     System.out.println("------------------------------ My Output --------------------------------");
 
                     start = System.nanoTime();
-                    if (minHeap == null) {
-                        minHeap = new MinHeap(warehouseItems.length);
-                        for (Item item : warehouseItems) {
-                            minHeap.insert(item);
-                        }
+                    if (ROW_STORE && rowHeap == null) {
+                        rowHeap = new RowMinHeap(store);
+                    } else if (!ROW_STORE && minHeap == null) {
+                        minHeap = MinHeap.create(PACKED_HEAP, warehouseItems);
                     }
                     end = System.nanoTime();
                     duration = end - start;
                     System.out.println("Min-heap Build Time: " + duration);
 
                     start = System.nanoTime();
-                    Item myItem = minHeap.peek();
+                    Item myItem = ROW_STORE ? store.get(rowHeap.peek()) : minHeap.peek();
                     end = System.nanoTime();
                     duration = end - start;
                     System.out.println("Min-heap Peek Time: " + duration);
                     System.out.println("Result: " + myItem.toString());
 
-                    System.out.println("------------------------- Java Library Output ----------------------------");
-                    Item refItem = standardMinHeap.peek();
+                    System.out.println(REFERENCE_HEADER);
+                    Item refItem = ROW_STORE ? store.get(scanSoonest(store)) : standardMinHeap.peek();
                     assert refItem != null;
                     System.out.println("Result: " + refItem.toString());
 
                     // reset the current state to the beginning
-                    System.out.println("Please enter the next function number you would like to play with: (6 for quit)");
+                    System.out.println("Please enter the next function number you would like to play with: (7 for quit)");
                     funcNum = in.nextInt();
                     break;
                 case 2: // Find an item in the warehouse
-                    System.out.println("Please enter the item ID in range [1," + warehouseItems.length + "):");
+                    System.out.println("Please enter the item ID in range [1," + itemCount + "):");
                     int itemID = in.nextInt();
                     System.out.println("------------------------------ My Output --------------------------------");
 
-                    start = System.nanoTime();
-                    Item result = redBlackTree.search(itemID);
-                    end = System.nanoTime();
-                    duration = end - start;
-                    System.out.println("RBT Search Time: " + duration);
+                    Item result;
+                    if (ROW_STORE) {
+                        start = System.nanoTime();
+                        result = store.search(itemID);
+                        end = System.nanoTime();
+                        duration = end - start;
+                        System.out.println("Row Index Search Time: " + duration);
+                    } else {
+                        snapshot = refreshSnapshot(snapshot, redBlackTree);
+                        start = System.nanoTime();
+                        Item treeResult = snapshot.search(itemID);
+                        end = System.nanoTime();
+                        duration = end - start;
+                        System.out.println("RBT Snapshot Search Time: " + duration);
+
+                        start = System.nanoTime();
+                        result = idIndex.search(itemID);
+                        end = System.nanoTime();
+                        duration = end - start;
+                        System.out.println("Hash Index Search Time: " + duration);
+                        if (result != treeResult) {
+                            System.out.println("RBT Snapshot Result: " + treeResult);
+                        }
+                    }
                     if (result == null) {
                         System.out.println("This item is not stored in our warehouse");
                     } else {
                         System.out.println("Result: " + result.toString());
                     }
 
-                    System.out.println("------------------------- Java Library Output ----------------------------");
-                    Item referenceItem = treeMap.get(itemID);
+                    System.out.println(REFERENCE_HEADER);
+                    Item referenceItem;
+                    if (ROW_STORE) {
+                        int referenceRow = scanForId(store, itemID);
+                        referenceItem = referenceRow == ItemStorage.MISSING ? null : store.get(referenceRow);
+                    } else {
+                        referenceItem = treeMap.get(itemID);
+                    }
                     if (referenceItem == null) {
                         System.out.println("This item is not stored in our warehouse");
                     } else {
@@ -289,19 +416,24 @@ public class GUI {
                     }
 
                     // reset the current state to the beginning
-                    System.out.println("Please enter the next function number you would like to play with: (6 for quit)");
+                    System.out.println("Please enter the next function number you would like to play with: (7 for quit)");
                     funcNum = in.nextInt();
                     break;
                 case 3: // Find the shortest path to the destination place
                     if (minHeap != null) {
-                        System.out.println("Please enter the item ID in range [1," + minHeap.size + "):");
+                        System.out.println("Please enter the item ID in range [1," + minHeap.size() + "):");
                     } else {
-                        System.out.println("Please enter the item ID in range [1," + warehouseItems.length + "]:");
+                        System.out.println("Please enter the item ID in range [1," + itemCount + "]:");
                     }
                     int findItemID = in.nextInt();
 
                     int destinationID = 0;
-                    Item target = redBlackTree.search(findItemID);
+                    Item target;
+                    if (ROW_STORE) {
+                        target = store.search(findItemID);
+                    } else {
+                        target = idIndex.search(findItemID);
+                    }
                     if (target == null) {
                         System.out.println("This item is not stored in our warehouse");
                     } else {
@@ -325,34 +457,44 @@ public class GUI {
                     }
 
                     // reset the current state to the beginning
-                    System.out.println("Please enter the next function number you would like to play with: (6 for quit)");
+                    System.out.println("Please enter the next function number you would like to play with: (7 for quit)");
                     funcNum = in.nextInt();
                     break;
                 case 4: // Add a new item to the warehouse
-                    System.out.println("Please enter a new ID: (larger than " + warehouseItems.length + ")");
+                    System.out.println("Please enter a new ID: (larger than " + itemCount + ")");
                     int newItemID = in.nextInt();
                     System.out.println("Please enter its deadline: (format: yymmdd, e.g. 201123)");
                     int newItemDeadline = in.nextInt();
                     System.out.println("Please enter its destination place code: (an integer in [1,30])");
                     int newItemDestination = in.nextInt();
-                    Item newItem = new Item(newItemID, newItemDeadline, newItemDestination, newItemID);
-                    // regenerate the min heap for insertion
-                    minHeap = new MinHeap(warehouseItems.length + 1);
-                    for (Item item : warehouseItems) {
-                        minHeap.insert(item);
+                    if (ROW_STORE) {
+                        // one new row, the store's id index and the row heap pick it up
+                        int newRow = store.add(newItemID, newItemDeadline, newItemDestination, newItemID);
+                        if (rowHeap == null) {
+                            rowHeap = new RowMinHeap(store);
+                        } else {
+                            rowHeap.insert(newRow);
+                        }
+                    } else {
+                        Item newItem = new Item(newItemID, newItemDeadline, newItemDestination, newItemID);
+                        // build the min heap once, afterwards every new item is a single O(log n) insertion
+                        if (minHeap == null) {
+                            minHeap = MinHeap.create(PACKED_HEAP, warehouseItems);
+                        }
+                        minHeap.insert(newItem);
+                        standardMinHeap.add(newItem);
+                        // insert into the red black tree
+                        redBlackTree.add(newItem);
+                        idIndex.add(newItem);
+                        treeMap.put(newItemID, newItem);
                     }
-                    minHeap.insert(newItem);
-                    standardMinHeap.add(newItem);
-                    // insert into the red black tree
-                    redBlackTree.add(newItem);
-                    treeMap.put(newItemID, newItem);
                     // add this new item to the current warehouse
                     System.out.println("Congrats! A new item(ID:" + newItemID
                             + ") will be stored in the location " + newItemID
                             + " in our warehouse, and will be sent to the destination place " + newItemDestination
                             + " before the deadline " + newItemDeadline);
                     // reset the current state to the beginning
-                    System.out.println("Please enter the next function number you would like to play with: (6 for quit)");
+                    System.out.println("Please enter the next function number you would like to play with: (7 for quit)");
                     funcNum = in.nextInt();
                     break;
                 case 5: // Add an edge to current myGraph
@@ -371,7 +513,47 @@ public class GUI {
                             + " with a weight of " + newWeight
                             + " has been created successfully!");
                     // reset the current state to the beginning
-                    System.out.println("Please enter the next function number you would like to play with: (6 for quit)");
+                    System.out.println("Please enter the next function number you would like to play with: (7 for quit)");
+                    funcNum = in.nextInt();
+                    break;
+                case 6: // Update the deadline of an item
+                    System.out.println("Please enter the item ID:");
+                    int updateItemID = in.nextInt();
+                    System.out.println("Please enter its new deadline: (format: yymmdd, e.g. 201123)");
+                    int updateDeadline = in.nextInt();
+                    Item oldItem = ROW_STORE ? null : idIndex.search(updateItemID);
+                    if (ROW_STORE) {
+                        System.out.println("Deadline updates need the Item path, the row store is append only");
+                    } else if (oldItem == null) {
+                        System.out.println("This item is not stored in our warehouse");
+                    } else {
+                        System.out.println("------------------------------ My Output --------------------------------");
+                        if (indexedHeap == null) {
+                            // build from the tree, it holds every item including the added ones
+                            start = System.nanoTime();
+                            Item[] currentItems = new Item[redBlackTree.size()];
+                            redBlackTree.toSortedArray(currentItems);
+                            indexedHeap = new IndexedMinHeap(currentItems);
+                            minHeap = indexedHeap;
+                            end = System.nanoTime();
+                            duration = end - start;
+                            System.out.println("Indexed Min-heap Build Time: " + duration);
+                        }
+                        start = System.nanoTime();
+                        Item updatedItem = indexedHeap.updateDeadline(updateItemID, updateDeadline);
+                        end = System.nanoTime();
+                        duration = end - start;
+                        System.out.println("Indexed Min-heap Update Time: " + duration);
+                        // the heap stores a copy, replace the old item everywhere else by its id
+                        redBlackTree.add(updatedItem);
+                        idIndex.add(updatedItem);
+                        standardMinHeap.remove(oldItem);
+                        standardMinHeap.add(updatedItem);
+                        treeMap.put(updateItemID, updatedItem);
+                        System.out.println("Result: " + updatedItem.toString());
+                    }
+                    // reset the current state to the beginning
+                    System.out.println("Please enter the next function number you would like to play with: (7 for quit)");
                     funcNum = in.nextInt();
                     break;
                 default: // Invalid input
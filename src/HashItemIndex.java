@@ -0,0 +1,287 @@
+import java.util.Arrays;
+
+/**
+ * HashItemIndex looks items up by id in O(1) without boxing.
+ * <p>
+ * Warehouse ids are dense integers, so as long as the ids cover at least half of their span the items are kept
+ * in a plain array indexed by id - offset and a lookup is a single array read. Once the ids become sparse
+ * the index switches to an IntIntHashMap from id to a slot of a gap-free Item[] array, and it switches back as
+ * soon as the ids cover two thirds of their span again, e.g. after the far away id that forced the switch was
+ * removed. The gap between the two limits keeps an index near either of them from switching on every call.
+ */
+public class HashItemIndex implements ItemIndex {
+
+    private static final int MIN_CAPACITY = 16;
+
+    // dense mode: items[id - offset], null when absent
+    private boolean dense;
+    private int offset;
+    private Item[] direct;
+    // smallest and largest id added, they only widen until boundsStale is cleared by a rescan
+    private int minID;
+    private int maxID;
+
+    // hash mode: stored[slots.get(id)], stored[0..size) has no gaps
+    private IntIntHashMap slots;
+    private Item[] stored;
+    // hash mode: the smallest or largest id was removed, minID and maxID may be wider than the stored ids
+    private boolean boundsStale;
+    // hash mode: adds and removes since the last rescan of the bounds
+    private int changes;
+
+    private int size;
+
+    // Constructors
+    public HashItemIndex() {
+        this.dense = true;
+        this.offset = 0;
+        this.direct = new Item[MIN_CAPACITY];
+        this.size = 0;
+    }
+
+    public HashItemIndex(Item[] items) {
+        if (items.length == 0) {
+            this.dense = true;
+            this.direct = new Item[MIN_CAPACITY];
+        } else {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (Item item : items) {
+                min = Math.min(min, item.getId());
+                max = Math.max(max, item.getId());
+            }
+            long span = (long) max - min + 1;
+            this.dense = isDense(span, items.length);
+            if (dense) {
+                this.offset = min;
+                this.minID = min;
+                this.maxID = max;
+                this.direct = new Item[(int) span];
+            } else {
+                allocate(items.length);
+            }
+        }
+        for (Item item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * Whether an id span is worth a direct array
+     *
+     * @param span  largest id - smallest id + 1
+     * @param count number of items
+     * @return true: at least half of the span would be used
+     */
+    private static boolean isDense(long span, int count) {
+        return span <= Math.max(2L * count, MIN_CAPACITY);
+    }
+
+    /**
+     * Whether a sparse index is compact enough to go back to a direct array
+     *
+     * @param span  largest id - smallest id + 1
+     * @param count number of items
+     * @return true: at least two thirds of the span would be used
+     */
+    private static boolean isCompact(long span, int count) {
+        return span <= Math.max(3L * count / 2, MIN_CAPACITY);
+    }
+
+    /**
+     * Create an empty hash table for the expected number of items
+     *
+     * @param expectedSize expected number of items
+     */
+    private void allocate(int expectedSize) {
+        slots = new IntIntHashMap(expectedSize);
+        stored = new Item[Math.max(expectedSize, MIN_CAPACITY)];
+    }
+
+    /**
+     * Search for a given ID item
+     *
+     * @param itemID given item ID
+     * @return item information
+     */
+    public Item search(int itemID) {
+        if (dense) {
+            long i = (long) itemID - offset;
+            return i >= 0 && i < direct.length ? direct[(int) i] : null;
+        }
+        int slot = slots.get(itemID);
+        return slot == IntIntHashMap.MISSING ? null : stored[slot];
+    }
+
+    /**
+     * Add an item to the index
+     *
+     * @param item given item
+     */
+    public void add(Item item) {
+        int itemID = item.getId();
+        if (dense) {
+            if (size == 0) {
+                minID = itemID;
+                maxID = itemID;
+                // anchor an empty array around the first id
+                if ((long) itemID < offset || (long) itemID - offset >= direct.length) {
+                    offset = (int) Math.max((long) itemID - direct.length / 2, Integer.MIN_VALUE);
+                }
+            }
+            if (!isDense((long) Math.max(maxID, itemID) - Math.min(minID, itemID) + 1, size + 1)) {
+                toHash();
+                add(item);
+                return;
+            }
+            minID = Math.min(minID, itemID);
+            maxID = Math.max(maxID, itemID);
+            if ((long) itemID < offset || (long) itemID - offset >= direct.length) {
+                long low = Math.min(offset, itemID);
+                long high = Math.max((long) offset + direct.length - 1, itemID);
+                // grow the direct array in the direction of the new id, at least doubling it
+                long length = Math.max(high - low + 1, 2L * direct.length);
+                long newLow = itemID < offset ? Math.max(high - length + 1, Integer.MIN_VALUE) : low;
+                long newHigh = Math.min(newLow + length - 1, Integer.MAX_VALUE);
+                Item[] temp = new Item[(int) (newHigh - newLow + 1)];
+                System.arraycopy(direct, 0, temp, (int) (offset - newLow), direct.length);
+                direct = temp;
+                offset = (int) newLow;
+            }
+            if (direct[itemID - offset] == null) size++;
+            direct[itemID - offset] = item;
+            return;
+        }
+        int slot = slots.get(itemID);
+        if (slot != IntIntHashMap.MISSING) {
+            stored[slot] = item;
+            return;
+        }
+        hashPut(item);
+        promoteIfCompact();
+    }
+
+    /**
+     * Append a new item to the hash table
+     *
+     * @param item given item, its id is not stored yet
+     */
+    private void hashPut(Item item) {
+        int itemID = item.getId();
+        if (size == stored.length) stored = Arrays.copyOf(stored, 2 * size);
+        stored[size] = item;
+        slots.put(itemID, size);
+        if (size == 0) {
+            minID = itemID;
+            maxID = itemID;
+        } else {
+            minID = Math.min(minID, itemID);
+            maxID = Math.max(maxID, itemID);
+        }
+        size++;
+    }
+
+    /**
+     * Remove the item with the given id
+     *
+     * @param itemID given item ID
+     * @return the removed item, null if absent
+     */
+    public Item remove(int itemID) {
+        if (dense) {
+            long i = (long) itemID - offset;
+            if (i < 0 || i >= direct.length || direct[(int) i] == null) return null;
+            Item removed = direct[(int) i];
+            direct[(int) i] = null;
+            size--;
+            // do not keep a mostly empty array around
+            if (direct.length > 4L * size + MIN_CAPACITY) toHash();
+            return removed;
+        }
+        int slot = slots.remove(itemID);
+        if (slot == IntIntHashMap.MISSING) return null;
+        Item removed = stored[slot];
+        // move the last item into the freed slot so the array stays without gaps
+        size--;
+        if (slot != size) {
+            stored[slot] = stored[size];
+            slots.put(stored[slot].getId(), slot);
+        }
+        stored[size] = null;
+        if (itemID == minID || itemID == maxID) boundsStale = true;
+        promoteIfCompact();
+        return removed;
+    }
+
+    /**
+     * Go back to the direct array once the ids are compact again. Stale bounds are rescanned at most once per
+     * size / 4 adds and removes, so both stay O(1) amortized, and right away the first time after the switch to
+     * hash mode.
+     */
+    private void promoteIfCompact() {
+        if (size == 0) {
+            slots = null;
+            stored = null;
+            dense = true;
+            offset = 0;
+            direct = new Item[MIN_CAPACITY];
+            return;
+        }
+        if (changes < Integer.MAX_VALUE) changes++;
+        if (boundsStale) {
+            if (changes < size / 4) return;
+            minID = Integer.MAX_VALUE;
+            maxID = Integer.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                minID = Math.min(minID, stored[i].getId());
+                maxID = Math.max(maxID, stored[i].getId());
+            }
+            boundsStale = false;
+            changes = 0;
+        }
+        if (isCompact((long) maxID - minID + 1, size)) toDense();
+    }
+
+    /**
+     * Move all items from the direct array into a hash table
+     */
+    private void toHash() {
+        Item[] old = direct;
+        direct = null;
+        dense = false;
+        boundsStale = false;
+        changes = Integer.MAX_VALUE;
+        allocate(size);
+        size = 0;
+        for (Item item : old) {
+            if (item != null) hashPut(item);
+        }
+    }
+
+    /**
+     * Move all items from the hash table into a direct array over [minID, maxID]
+     */
+    private void toDense() {
+        direct = new Item[(int) ((long) maxID - minID + 1)];
+        offset = minID;
+        for (int i = 0; i < size; i++) {
+            direct[stored[i].getId() - offset] = stored[i];
+        }
+        slots = null;
+        stored = null;
+        dense = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether lookups currently go to the direct array
+     *
+     * @return true: dense mode
+     */
+    public boolean isDense() {
+        return dense;
+    }
+}
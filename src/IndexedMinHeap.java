@@ -0,0 +1,235 @@
+/**
+ * IndexedMinHeap is a min heap ordered by deadline that also knows where every item id sits in the heap.
+ * <p>
+ * The id -> heap position map is updated on every move, so a changed deadline or a cancelled parcel
+ * is handled with one swim/sink in O(log n) instead of rebuilding the whole heap.
+ * A changed deadline replaces the stored Item with a copy, the old Item stays valid wherever else
+ * it is kept; add the returned copy to a RedBlackTree to replace the old one there as well.
+ */
+public class IndexedMinHeap implements DeadlineQueue {
+
+    private int size;
+    private Item[] items;
+    // item id -> index in items
+    private IntIntHashMap positions;
+
+    // Constructor
+    public IndexedMinHeap(int maxN) {
+        this.size = 0;
+        this.items = new Item[maxN + 1];
+        this.positions = new IntIntHashMap(maxN);
+    }
+
+    public IndexedMinHeap(Item[] initialItems) {
+        this(initialItems.length);
+        for (Item item : initialItems) {
+            if (positions.containsKey(item.getId())) {
+                throw new IllegalArgumentException("Item " + item.getId() + " is already in the heap.");
+            }
+            items[++size] = item;
+            positions.put(item.getId(), size);
+        }
+        build();
+    }
+
+    /**
+     * Insert a new item into the current min heap
+     *
+     * @param newItem a new item created by users
+     */
+    public void insert(Item newItem) {
+        if (positions.containsKey(newItem.getId())) {
+            throw new IllegalArgumentException("Item " + newItem.getId() + " is already in the heap.");
+        }
+        if (size == items.length - 1) resize(2 * items.length);
+        items[++size] = newItem;
+        positions.put(newItem.getId(), size);
+        swim(size);
+    }
+
+    /**
+     * Move the heap into an array of the given length
+     *
+     * @param capacity new array length
+     */
+    private void resize(int capacity) {
+        Item[] temp = new Item[capacity];
+        System.arraycopy(items, 1, temp, 1, size);
+        items = temp;
+    }
+
+    /**
+     * Shift the kth item up
+     *
+     * @param k index
+     */
+    private void swim(int k) {
+        while (k > 1 && more(k / 2, k)) {
+            swap(k, k / 2);
+            k = k / 2;
+        }
+    }
+
+    /**
+     * minHeapify at index k
+     *
+     * @param k index
+     */
+    private void sink(int k) {
+        while (2 * k <= size) {
+            int j = 2 * k;
+            if (j < size && more(j, j + 1)) j++;
+            if (!more(k, j)) break;
+            swap(k, j);
+            k = j;
+        }
+    }
+
+    /**
+     * Extract the minimum element in heap
+     *
+     * @return the item with soonest deadline
+     */
+    public Item extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        return removeAt(1);
+    }
+
+    /**
+     * Return the minimum item
+     *
+     * @return the item with soonest deadline
+     */
+    public Item peek() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        return items[1];
+    }
+
+    /**
+     * Whether an item with the given id is in the heap
+     *
+     * @param itemID given item ID
+     * @return true: stored
+     */
+    public boolean contains(int itemID) {
+        return positions.containsKey(itemID);
+    }
+
+    /**
+     * Change the deadline of a stored item and restore the heap order
+     *
+     * @param itemID      given item ID
+     * @param newDeadline the new deadline
+     * @return the stored copy of the item with the new deadline
+     */
+    public Item updateDeadline(int itemID, int newDeadline) {
+        int k = positionOf(itemID);
+        Item updated = items[k].withDeadline(newDeadline);
+        int oldDeadline = items[k].getDeadline();
+        items[k] = updated;
+        if (newDeadline < oldDeadline) {
+            swim(k);
+        } else {
+            sink(k);
+        }
+        return updated;
+    }
+
+    /**
+     * Move the deadline of a stored item forward
+     *
+     * @param itemID      given item ID
+     * @param newDeadline the new deadline, no later than the current one
+     * @return the stored copy of the item with the new deadline
+     */
+    public Item decreaseKey(int itemID, int newDeadline) {
+        int k = positionOf(itemID);
+        if (newDeadline > items[k].getDeadline()) {
+            throw new IllegalArgumentException("New deadline is later than the current one.");
+        }
+        Item updated = items[k].withDeadline(newDeadline);
+        items[k] = updated;
+        swim(k);
+        return updated;
+    }
+
+    /**
+     * Remove a stored item, e.g. a cancelled parcel
+     *
+     * @param itemID given item ID
+     * @return the removed item
+     */
+    public Item remove(int itemID) {
+        return removeAt(positionOf(itemID));
+    }
+
+    /**
+     * Remove the item at index k and restore the heap order
+     *
+     * @param k index
+     * @return the removed item
+     */
+    private Item removeAt(int k) {
+        Item removed = items[k];
+        swap(k, size--);
+        items[size + 1] = null;
+        positions.remove(removed.getId());
+        if (k <= size) {
+            swim(k);
+            sink(k);
+        }
+        return removed;
+    }
+
+    /**
+     * Look up the heap index of an item id
+     *
+     * @param itemID given item ID
+     * @return index in items
+     */
+    private int positionOf(int itemID) {
+        int k = positions.get(itemID);
+        if (k == IntIntHashMap.MISSING) {
+            throw new IllegalArgumentException("Item " + itemID + " is not in the heap.");
+        }
+        return k;
+    }
+
+    /**
+     * Compare whether the item at index i has a longer deadline than item at index j
+     *
+     * @param i item index
+     * @param j item index
+     * @return whether i's deadline is later than j
+     */
+    private boolean more(int i, int j) {
+        return items[i].getDeadline() > items[j].getDeadline();
+    }
+
+    /**
+     * Swap two items in the array and update their positions
+     *
+     * @param i index
+     * @param j index
+     */
+    private void swap(int i, int j) {
+        Item temp = items[i];
+        items[i] = items[j];
+        items[j] = temp;
+        positions.put(items[i].getId(), i);
+        positions.put(items[j].getId(), j);
+    }
+
+    /**
+     * Build the min-heap
+     */
+    public void build() {
+        for (int i = size / 2; i >= 1; i--) {
+            sink(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * IntIntHashMap maps int keys to non-negative int values without boxing.
+ * <p>
+ * Open addressing with linear probing; deletions shift the following entries back
+ * so no tombstones are ever left in the table.
+ */
+public class IntIntHashMap {
+
+    // returned by get when the key is absent
+    public static final int MISSING = -1;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    // Constructor
+    public IntIntHashMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.used = new boolean[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+
+    /**
+     * Spread the key bits so that dense ids do not end up in long probe runs
+     *
+     * @param key given key
+     * @return home slot of the key
+     */
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Find the slot that holds the key
+     *
+     * @param key given key
+     * @return slot index, or -1 if the key is absent
+     */
+    private int find(int key) {
+        int i = slot(key);
+        while (used[i]) {
+            if (keys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the value mapped to the key
+     *
+     * @param key given key
+     * @return the value, or MISSING if the key is absent
+     */
+    public int get(int key) {
+        int i = find(key);
+        return i < 0 ? MISSING : values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Map the key to the value, replacing any previous mapping
+     *
+     * @param key   given key
+     * @param value non-negative value
+     */
+    public void put(int key, int value) {
+        int i = slot(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) rehash();
+    }
+
+    /**
+     * Remove the mapping of the key
+     *
+     * @param key given key
+     * @return the removed value, or MISSING if the key is absent
+     */
+    public int remove(int key) {
+        int i = find(key);
+        if (i < 0) return MISSING;
+        int removed = values[i];
+        // shift back every entry of the probe run that would become unreachable
+        int hole = i;
+        int j = (i + 1) & mask;
+        while (used[j]) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+        used[hole] = false;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Double the table and re-insert every entry
+     */
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
@@ -30,6 +30,11 @@ public class Item {
         return destination;
     }
 
+    // items are shared by several structures and never change, a new deadline means a new item
+    public Item withDeadline(int deadline) {
+        return new Item(id, deadline, destination, location);
+    }
+
     // for better print out
     @Override
     public String toString() {
@@ -0,0 +1,64 @@
+/**
+ * ItemIndex is the common contract of every structure that looks items up by id.
+ */
+public interface ItemIndex {
+
+    /**
+     * Add an item to the index, replacing any stored item with the same id
+     *
+     * @param item given item
+     */
+    void add(Item item);
+
+    /**
+     * Search for a given ID item
+     *
+     * @param itemID given item ID
+     * @return item information, null if absent
+     */
+    Item search(int itemID);
+
+    /**
+     * Remove the item with the given id
+     *
+     * @param itemID given item ID
+     * @return the removed item, null if absent
+     */
+    Item remove(int itemID);
+
+    /**
+     * Remove a batch of items, e.g. a shipped dispatch wave
+     *
+     * @param items the batch, only items[0 .. count) are used
+     * @param count batch size
+     * @return number of items that were stored and are now removed
+     */
+    default int removeAll(Item[] items, int count) {
+        int removed = 0;
+        for (int i = 0; i < count; i++) {
+            if (remove(items[i].getId()) != null) removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Remove a batch of ids
+     *
+     * @param itemIDs given item IDs
+     * @return number of items that were stored and are now removed
+     */
+    default int removeAll(int[] itemIDs) {
+        int removed = 0;
+        for (int itemID : itemIDs) {
+            if (remove(itemID) != null) removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Number of stored items
+     *
+     * @return index size
+     */
+    int size();
+}
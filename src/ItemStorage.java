@@ -0,0 +1,67 @@
+/**
+ * ItemStorage is the common contract of the row based parcel stores.
+ * <p>
+ * A parcel is addressed by its row, the position it was added at. RowMinHeap and any other row based
+ * structure only talk to this interface, so the columns can live on the Java heap (ItemStore) or outside it
+ * (OffHeapItemStore).
+ */
+public interface ItemStorage {
+
+    int MISSING = -1;
+
+    /**
+     * Append a parcel
+     *
+     * @param id          item ID
+     * @param deadline    deadline in format yyMMdd
+     * @param destination destination place code
+     * @param location    warehouse location
+     * @return row of the new parcel
+     */
+    int add(int id, int deadline, int destination, int location);
+
+    /**
+     * Find the row of an item ID
+     *
+     * @param itemID given item ID
+     * @return row, MISSING if absent
+     */
+    int rowOf(int itemID);
+
+    int getId(int row);
+
+    int getDeadline(int row);
+
+    int getDestination(int row);
+
+    int getLocation(int row);
+
+    /**
+     * Number of rows stored
+     *
+     * @return store size
+     */
+    int size();
+
+    /**
+     * Create an Item object for one row
+     *
+     * @param row given row
+     * @return item information
+     */
+    default Item get(int row) {
+        if (row < 0 || row >= size()) throw new IndexOutOfBoundsException("No row " + row + ".");
+        return new Item(getId(row), getDeadline(row), getDestination(row), getLocation(row));
+    }
+
+    /**
+     * Search for a given ID item
+     *
+     * @param itemID given item ID
+     * @return item information, null if absent
+     */
+    default Item search(int itemID) {
+        int row = rowOf(itemID);
+        return row == MISSING ? null : get(row);
+    }
+}
@@ -0,0 +1,271 @@
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * ItemStore keeps the warehouse in four parallel int columns instead of one Item object per parcel.
+ * <p>
+ * A parcel is addressed by its row, the position it was loaded at. Rows cost 16 bytes with no object header
+ * or reference, and loading a file fills the columns directly, so a 2^23 warehouse is a handful of large arrays
+ * instead of millions of small objects. Item objects are only created on demand by get.
+ */
+public class ItemStore implements ItemStorage {
+
+    private static final int INITIAL_ROWS = 1024;
+
+    private int size;
+    private int[] ids;
+    private int[] deadlines;
+    private int[] destinations;
+    private int[] locations;
+
+    // id -> row lookup
+    private final RowIndex index;
+
+    // Constructors
+    public ItemStore() {
+        this(INITIAL_ROWS);
+    }
+
+    public ItemStore(int capacity) {
+        this.size = 0;
+        allocate(Math.max(capacity, 1));
+        this.index = new RowIndex();
+    }
+
+    private void allocate(int capacity) {
+        this.ids = new int[capacity];
+        this.deadlines = new int[capacity];
+        this.destinations = new int[capacity];
+        this.locations = new int[capacity];
+    }
+
+    /**
+     * Load a warehouse data file (lines of "id,deadline,destination,location"), parsing the digits directly
+     * from the byte stream
+     *
+     * @param fileName the input file name
+     * @return store holding one row per line
+     * @throws IOException file not exists
+     */
+    public static ItemStore load(String fileName) throws IOException {
+        return load(fileName, new ItemStore());
+    }
+
+    /**
+     * Append every line of a warehouse data file to the given storage
+     *
+     * @param fileName the input file name
+     * @param store    storage to fill
+     * @param <S>      storage type
+     * @return the storage
+     * @throws IOException file not exists
+     */
+    public static <S extends ItemStorage> S load(String fileName, S store) throws IOException {
+        try (InputStream in = new FileInputStream(fileName)) {
+            byte[] buffer = new byte[1 << 16];
+            int[] fields = new int[4];
+            int field = 0, value = 0;
+            boolean negative = false, digits = false;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int p = 0; p < read; p++) {
+                    byte b = buffer[p];
+                    if (b >= '0' && b <= '9') {
+                        value = value * 10 + (b - '0');
+                        digits = true;
+                    } else if (b == ',' || b == '\n') {
+                        if (!digits || field == 4) throw new NumberFormatException("Malformed line in " + fileName);
+                        fields[field++] = negative ? -value : value;
+                        value = 0;
+                        negative = false;
+                        digits = false;
+                        if (b == '\n') {
+                            if (field != 4) throw new NumberFormatException("Malformed line in " + fileName);
+                            store.add(fields[0], fields[1], fields[2], fields[3]);
+                            field = 0;
+                        }
+                    } else if (b == '-' && !digits) {
+                        negative = true;
+                    } else if (b != '\r' && b != ' ') {
+                        throw new NumberFormatException("Unexpected character in " + fileName);
+                    }
+                }
+            }
+            // last line without a line break
+            if (digits) {
+                fields[field++] = negative ? -value : value;
+                if (field != 4) throw new NumberFormatException("Malformed line in " + fileName);
+                store.add(fields[0], fields[1], fields[2], fields[3]);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Append a parcel
+     *
+     * @param id          item ID
+     * @param deadline    deadline in format yyMMdd
+     * @param destination destination place code
+     * @param location    warehouse location
+     * @return row of the new parcel
+     */
+    public int add(int id, int deadline, int destination, int location) {
+        if (size == ids.length) resize(2 * ids.length);
+        int row = size++;
+        ids[row] = id;
+        deadlines[row] = deadline;
+        destinations[row] = destination;
+        locations[row] = location;
+        index.added(this, id, row);
+        return row;
+    }
+
+    /**
+     * Move the columns into arrays of the given length
+     *
+     * @param capacity new number of rows
+     */
+    private void resize(int capacity) {
+        int[][] columns = {ids, deadlines, destinations, locations};
+        allocate(capacity);
+        System.arraycopy(columns[0], 0, ids, 0, size);
+        System.arraycopy(columns[1], 0, deadlines, 0, size);
+        System.arraycopy(columns[2], 0, destinations, 0, size);
+        System.arraycopy(columns[3], 0, locations, 0, size);
+    }
+
+    /**
+     * Find the row of an item ID: O(1) for dense ids, binary search for ascending ids, otherwise hashed
+     *
+     * @param itemID given item ID
+     * @return row, MISSING if absent
+     */
+    public int rowOf(int itemID) {
+        return index.rowOf(this, itemID);
+    }
+
+    // column getters
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public int getDeadline(int row) {
+        return deadlines[row];
+    }
+
+    public int getDestination(int row) {
+        return destinations[row];
+    }
+
+    public int getLocation(int row) {
+        return locations[row];
+    }
+
+    /**
+     * Create Item objects for all rows, for the structures that still work on objects
+     *
+     * @return one item per row, in row order
+     */
+    public Item[] toItems() {
+        Item[] items = new Item[size];
+        for (int row = 0; row < size; row++) {
+            items[row] = new Item(ids[row], deadlines[row], destinations[row], locations[row]);
+        }
+        return items;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis against Item objects
+        // every line is "<layout>: load ms, retained bytes/item, gc ms during load, extractMin ns/op" for 2^16 to 2^20 items
+        StringBuilder objectResult = new StringBuilder("Item[] and MinHeap: ");
+        StringBuilder columnResult = new StringBuilder("ItemStore and RowMinHeap: ");
+        long start, end, before, gc;
+        for (int i = 16; i <= 20; i += 2) {
+            String fileName = "warehouseData" + i + ".txt";
+
+            before = RedBlackTree.usedMemory();
+            gc = gcMillis();
+            start = System.nanoTime();
+            Item[] warehouseItems = readItemsWithArrayList(fileName);
+            end = System.nanoTime();
+            gc = gcMillis() - gc;
+            long objectBytes = RedBlackTree.usedMemory() - before;
+            objectResult.append((end - start) / 1000000).append(", ")
+                    .append(objectBytes / warehouseItems.length).append(", ")
+                    .append(gc).append(", ");
+            MinHeap minHeap = new MinHeap(warehouseItems);
+            start = System.nanoTime();
+            while (minHeap.size() > 0) {
+                minHeap.extractMin();
+            }
+            end = System.nanoTime();
+            objectResult.append((end - start) / warehouseItems.length).append("; ");
+            warehouseItems = null;
+            minHeap = null;
+
+            before = RedBlackTree.usedMemory();
+            gc = gcMillis();
+            start = System.nanoTime();
+            ItemStore store = load(fileName);
+            end = System.nanoTime();
+            gc = gcMillis() - gc;
+            long columnBytes = RedBlackTree.usedMemory() - before;
+            columnResult.append((end - start) / 1000000).append(", ")
+                    .append(columnBytes / store.size()).append(", ")
+                    .append(gc).append(", ");
+            RowMinHeap rowMinHeap = new RowMinHeap(store);
+            start = System.nanoTime();
+            while (rowMinHeap.size() > 0) {
+                rowMinHeap.extractMin();
+            }
+            end = System.nanoTime();
+            columnResult.append((end - start) / store.size()).append("; ");
+        }
+        System.out.println(objectResult.toString().trim());
+        System.out.println(columnResult.toString().trim());
+    }
+
+    /**
+     * The old loader: split every line and box the items into an ArrayList first
+     *
+     * @param fileName the input file name
+     * @return one item per line
+     * @throws IOException file not exists
+     */
+    private static Item[] readItemsWithArrayList(String fileName) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(new FileReader(fileName));
+        ArrayList<Item> itemArrayList = new ArrayList<>();
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            String[] temp = line.split(",");
+            itemArrayList.add(new Item(Integer.parseInt(temp[0]), Integer.parseInt(temp[1]),
+                    Integer.parseInt(temp[2]), Integer.parseInt(temp[3])));
+        }
+        bufferedReader.close();
+        return itemArrayList.toArray(new Item[0]);
+    }
+
+    /**
+     * Total collection time of all garbage collectors so far
+     *
+     * @return milliseconds
+     */
+    static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(bean.getCollectionTime(), 0);
+        }
+        return total;
+    }
+}
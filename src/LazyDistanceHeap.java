@@ -0,0 +1,97 @@
+/**
+ * LazyDistanceHeap is a binary min heap of (distance, vertex) entries that never moves or deletes an entry.
+ * <p>
+ * A shorter distance for a vertex is simply inserted as another entry; the old entry becomes stale and is
+ * skipped by the caller when it reaches the top (its key is larger than the vertex's current distance).
+ * This trades up to one entry per relaxation for not having to track heap positions, see DistanceHeap for
+ * the indexed alternative.
+ */
+public class LazyDistanceHeap {
+
+    private int size;
+    // entries, index 0 unused like MinHeap
+    private double[] keys;
+    private int[] vertices;
+
+    // Constructor
+    public LazyDistanceHeap(int capacity) {
+        this.size = 0;
+        this.keys = new double[Math.max(capacity, 1) + 1];
+        this.vertices = new int[Math.max(capacity, 1) + 1];
+    }
+
+    /**
+     * Insert an entry, doubling the arrays when they are full
+     *
+     * @param vertex   vertex id
+     * @param distance tentative distance
+     */
+    public void insert(int vertex, double distance) {
+        if (size == keys.length - 1) {
+            double[] tempKeys = new double[2 * keys.length];
+            System.arraycopy(keys, 1, tempKeys, 1, size);
+            keys = tempKeys;
+            int[] tempVertices = new int[2 * vertices.length];
+            System.arraycopy(vertices, 1, tempVertices, 1, size);
+            vertices = tempVertices;
+        }
+        int k = ++size;
+        while (k > 1 && keys[k / 2] > distance) {
+            keys[k] = keys[k / 2];
+            vertices[k] = vertices[k / 2];
+            k = k / 2;
+        }
+        keys[k] = distance;
+        vertices[k] = vertex;
+    }
+
+    /**
+     * Return the smallest key
+     *
+     * @return distance of the top entry
+     */
+    public double minKey() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        return keys[1];
+    }
+
+    /**
+     * Extract the entry with the smallest key
+     *
+     * @return vertex id of the top entry
+     */
+    public int extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        int min = vertices[1];
+        double key = keys[size];
+        int vertex = vertices[size--];
+        // sink the last entry from the root
+        int k = 1;
+        while (2 * k <= size) {
+            int j = 2 * k;
+            if (j < size && keys[j] > keys[j + 1]) j++;
+            if (key <= keys[j]) break;
+            keys[k] = keys[j];
+            vertices[k] = vertices[j];
+            k = j;
+        }
+        keys[k] = key;
+        vertices[k] = vertex;
+        return min;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drop all entries so that the heap can be reused for the next search
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -1,31 +1,66 @@
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * MinHeap class implement data structure min heap
  * <p>
  * Part of code is developed based on the book Algorithms written by Robert Sedgewick
  */
-public class MinHeap {
+public class MinHeap implements DeadlineQueue {
 
     public int size;
     private Item[] items;
+    // scratch space of the batch extraction, allocated on first use and sized to the largest batch so far
+    private int[] holes;
+    // byte histogram of the radix passes of the bulk extraction
+    private int[] counts;
 
-    // Constructor
+    // below this size the whole heap stays in cache and the bulk pass never pays off
+    private static final int BULK_MIN_SIZE = 1 << 12;
+    // below this size the heap stays in cache, where a sift that stops early on equal deadlines beats moving
+    // holes all the way down
+    private static final int HOLE_MIN_SIZE = 1 << 17;
+
+    // Constructors
     public MinHeap(int maxN) {
         this.size = 0;
         this.items = new Item[maxN + 1];
     }
 
     /**
-     * Insert a new item into the current min heap
+     * Create a heap holding all given items, heapified bottom-up in O(n)
+     *
+     * @param initialItems all items
+     */
+    public MinHeap(Item[] initialItems) {
+        this.size = initialItems.length;
+        this.items = new Item[initialItems.length + 1];
+        System.arraycopy(initialItems, 0, items, 1, initialItems.length);
+        build();
+    }
+
+    /**
+     * Insert a new item into the current min heap, doubling the array when it is full
      *
      * @param newItem a new item created by users
      */
     public void insert(Item newItem) {
+        if (size == items.length - 1) resize(2 * items.length);
         items[++size] = newItem;
         swim(size);
     }
 
+    /**
+     * Move the heap into an array of the given length
+     *
+     * @param capacity new array length
+     */
+    private void resize(int capacity) {
+        Item[] temp = new Item[capacity];
+        System.arraycopy(items, 1, temp, 1, size);
+        items = temp;
+    }
+
     /**
      * Shift the kth item up
      *
@@ -67,6 +102,279 @@ public class MinHeap {
         return min;
     }
 
+    /**
+     * Extract every item whose deadline is not later than the given one, soonest first
+     *
+     * @param deadline the latest deadline to extract
+     * @param buffer   caller supplied output array, at most buffer.length items are extracted
+     * @return number of items written to buffer
+     */
+    public int drainUntil(int deadline, Item[] buffer) {
+        return extractBatch(deadline, buffer.length, buffer);
+    }
+
+    /**
+     * Extract the k items with the soonest deadlines, soonest first
+     *
+     * @param k      number of items
+     * @param buffer caller supplied output array
+     * @return number of items written to buffer, less than k only if the heap runs out
+     */
+    public int extractTopK(int k, Item[] buffer) {
+        if (k > buffer.length) throw new IllegalArgumentException("Buffer is smaller than k.");
+        return extractBatch(Integer.MAX_VALUE, k, buffer);
+    }
+
+    /**
+     * Extract up to k soonest items with a deadline not later than the given one.
+     * <p>
+     * extractMin moves the last item to the root and sinks it, two comparisons per level, for every item. A batch
+     * instead leaves a hole at the root and moves the hole down along the sooner children to the bottom, one
+     * comparison per level, and keeps the holes until the batch is complete. Only then the last items of the
+     * array are moved into the holes, which are at the bottom of the tree, so each of them rises a level or two
+     * at most. A heap that fits in cache is drained with siftDown instead, which stops early on equal deadlines.
+     * <p>
+     * A batch of more than 2n / log n items is finished with a few passes over the whole array instead, see
+     * extractBulk.
+     *
+     * @param deadline the latest deadline to extract
+     * @param k        maximum number of items
+     * @param buffer   caller supplied output array
+     * @return number of items written to buffer
+     */
+    private int extractBatch(int deadline, int k, Item[] buffer) {
+        if (k <= 0 || size == 0) return 0;
+        int limit = k;
+        int logSize = 32 - Integer.numberOfLeadingZeros(size);
+        if (size >= BULK_MIN_SIZE && (long) k * logSize > 2L * size) {
+            // a drain may still turn out small, so take a few items the cheap way before deciding
+            limit = size / (logSize * logSize);
+        }
+        int count = 0;
+        if (size < HOLE_MIN_SIZE) {
+            while (count < limit && size > 0 && items[1].getDeadline() <= deadline) {
+                buffer[count++] = items[1];
+                Item last = items[size];
+                items[size--] = null;
+                if (size > 0) siftDown(last);
+            }
+        } else {
+            if (holes == null || holes.length < limit) holes = new int[limit];
+            while (count < limit && items[1] != null && items[1].getDeadline() <= deadline) {
+                buffer[count] = items[1];
+                holes[count++] = siftHoleDown();
+            }
+            fillHoles(count);
+        }
+        if (count < k && size > 0 && items[1].getDeadline() <= deadline) {
+            // everything left in the heap is not sooner than what was extracted so far
+            count += extractBulk(deadline, k - count, buffer, count);
+        }
+        return count;
+    }
+
+    /**
+     * Put an item at the root and sift it down. Unlike sink, the item is held while the sooner children move up
+     * and its deadline is read once, so every level costs one comparison between the children, one against the
+     * item and a single write.
+     *
+     * @param item item to place, usually the last one of the array
+     */
+    private void siftDown(Item item) {
+        int itemDeadline = item.getDeadline();
+        int k = 1;
+        while (2 * k <= size) {
+            int j = 2 * k;
+            int childDeadline = items[j].getDeadline();
+            if (j < size) {
+                int rightDeadline = items[j + 1].getDeadline();
+                if (rightDeadline < childDeadline) {
+                    j++;
+                    childDeadline = rightDeadline;
+                }
+            }
+            if (itemDeadline <= childDeadline) break;
+            items[k] = items[j];
+            k = j;
+        }
+        items[k] = item;
+    }
+
+    /**
+     * Remove the root by moving the sooner child up, level by level, until the hole has no items below it.
+     * Holes count as later than any item, and everything below a hole is a hole as well.
+     *
+     * @return index where the hole ended
+     */
+    private int siftHoleDown() {
+        int hole = 1;
+        while (2 * hole <= size) {
+            int j = 2 * hole;
+            Item left = items[j];
+            Item right = j < size ? items[j + 1] : null;
+            if (left == null && right == null) break;
+            if (left == null || (right != null && right.getDeadline() < left.getDeadline())) j++;
+            items[hole] = items[j];
+            hole = j;
+        }
+        items[hole] = null;
+        return hole;
+    }
+
+    /**
+     * Close the first count holes: move the last items of the array into the holes inside the new size and let
+     * each of them rise like an inserted item. A hole only stops above two holes, so a parent hole is always
+     * newer than its children; filling the newest hole first means nothing is below a hole when it is filled,
+     * and every fill is an insertion into an empty subtree.
+     *
+     * @param count number of holes
+     */
+    private void fillHoles(int count) {
+        if (count == 0) return;
+        int newSize = size - count;
+        int tail = size;
+        for (int j = count - 1; j >= 0; j--) {
+            if (holes[j] > newSize) continue;
+            while (items[tail] == null) {
+                tail--;
+            }
+            Item item = items[tail];
+            items[tail--] = null;
+            int k = holes[j];
+            int itemDeadline = item.getDeadline();
+            while (k > 1 && items[k / 2].getDeadline() > itemDeadline) {
+                items[k] = items[k / 2];
+                k = k / 2;
+            }
+            items[k] = item;
+        }
+        size = newSize;
+    }
+
+    /**
+     * Extract up to k soonest items with a deadline not later than the given one in O(n): a radix select over
+     * the deadlines finds the k-th soonest, one pass moves the batch out of the array, the batch is radix
+     * sorted and the rest is heapified again with build
+     *
+     * @param deadline the latest deadline to extract
+     * @param k        maximum number of items
+     * @param buffer   caller supplied output array
+     * @param offset   first index of buffer to write
+     * @return number of items written to buffer
+     */
+    private int extractBulk(int deadline, int k, Item[] buffer, int offset) {
+        if (counts == null) counts = new int[257];
+        int qualifying = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 1; i <= size; i++) {
+            int itemDeadline = items[i].getDeadline();
+            if (itemDeadline <= deadline) {
+                qualifying++;
+                min = Math.min(min, itemDeadline);
+                max = Math.max(max, itemDeadline);
+            }
+        }
+        int cutoff = deadline;
+        // how many items with exactly the cutoff deadline may be taken
+        int ties = Integer.MAX_VALUE;
+        if (qualifying > k) {
+            // radix select of the k-th soonest deadline, only over the bytes where the deadlines differ
+            int topShift = min == max ? -8 : (31 - Integer.numberOfLeadingZeros(min ^ max)) / 8 * 8;
+            int prefixMask = topShift == 24 ? 0 : -1 << (topShift + 8);
+            int prefix = (min ^ Integer.MIN_VALUE) & prefixMask;
+            int below = 0;
+            for (int shift = topShift; shift >= 0; shift -= 8) {
+                Arrays.fill(counts, 0);
+                for (int i = 1; i <= size; i++) {
+                    int itemDeadline = items[i].getDeadline();
+                    int flipped = itemDeadline ^ Integer.MIN_VALUE;
+                    if (itemDeadline <= deadline && (flipped & prefixMask) == prefix) {
+                        counts[(flipped >>> shift) & 0xFF]++;
+                    }
+                }
+                int b = 0;
+                while (below + counts[b] < k) {
+                    below += counts[b++];
+                }
+                prefix |= b << shift;
+                prefixMask |= 0xFF << shift;
+            }
+            cutoff = prefix ^ Integer.MIN_VALUE;
+            ties = k - below;
+        }
+        int taken = Math.min(qualifying, k);
+        int[] batchDeadlines = new int[taken];
+        Item[] batch = new Item[taken];
+        int count = 0;
+        int rest = 0;
+        for (int i = 1; i <= size; i++) {
+            Item item = items[i];
+            int itemDeadline = item.getDeadline();
+            if (itemDeadline < cutoff || (itemDeadline == cutoff && ties > 0)) {
+                if (itemDeadline == cutoff) ties--;
+                batchDeadlines[count] = itemDeadline;
+                batch[count++] = item;
+            } else {
+                items[++rest] = item;
+            }
+        }
+        Arrays.fill(items, rest + 1, size + 1, null);
+        size = rest;
+        build();
+        radixSort(batchDeadlines, batch, buffer, offset);
+        return count;
+    }
+
+    /**
+     * Sort a batch by deadline with a byte-wise radix sort in O(n) per byte and write it to buffer. A
+     * comparison sort would cost the same O(n log n) as extractMin calls; deadlines of one batch usually share
+     * their upper bytes, and a byte that is equal in every deadline is skipped.
+     *
+     * @param deadlines deadlines of the batch
+     * @param batch     items of the batch
+     * @param buffer    caller supplied output array
+     * @param offset    first index of buffer to write
+     */
+    private void radixSort(int[] deadlines, Item[] batch, Item[] buffer, int offset) {
+        int n = batch.length;
+        int[] sortedDeadlines = new int[n];
+        Item[] sorted = new Item[n];
+        for (int shift = 0; shift < 32 && n > 0; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (int j = 0; j < n; j++) {
+                counts[digit(deadlines[j], shift) + 1]++;
+            }
+            if (counts[digit(deadlines[0], shift) + 1] == n) continue;
+            for (int b = 0; b < 256; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (int j = 0; j < n; j++) {
+                int position = counts[digit(deadlines[j], shift)]++;
+                sortedDeadlines[position] = deadlines[j];
+                sorted[position] = batch[j];
+            }
+            int[] tempDeadlines = deadlines;
+            deadlines = sortedDeadlines;
+            sortedDeadlines = tempDeadlines;
+            Item[] tempItems = batch;
+            batch = sorted;
+            sorted = tempItems;
+        }
+        System.arraycopy(batch, 0, buffer, offset, n);
+    }
+
+    /**
+     * One byte of a deadline, with the sign bit flipped so negative deadlines sort first
+     *
+     * @param deadline deadline
+     * @param shift    bit offset of the byte
+     * @return byte value from 0 to 255
+     */
+    private static int digit(int deadline, int shift) {
+        return ((deadline ^ Integer.MIN_VALUE) >>> shift) & 0xFF;
+    }
+
     /**
      * Return the minimum item
      *
@@ -111,32 +419,133 @@ public class MinHeap {
         }
     }
 
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create an empty deadline queue of the requested kind
+     *
+     * @param packed true: primitive packed heap, false: Item[] heap
+     * @param maxN   capacity
+     * @return empty deadline queue
+     */
+    public static DeadlineQueue create(boolean packed, int maxN) {
+        return packed ? new PackedMinHeap(maxN) : new MinHeap(maxN);
+    }
+
+    /**
+     * Create a deadline queue of the requested kind holding all given items, built in O(n)
+     *
+     * @param packed       true: primitive packed heap, false: Item[] heap
+     * @param initialItems all items
+     * @return heapified deadline queue
+     */
+    public static DeadlineQueue create(boolean packed, Item[] initialItems) {
+        return packed ? new PackedMinHeap(initialItems) : new MinHeap(initialItems);
+    }
+
 
     public static void main(String[] args) throws IOException {
         // for empirical analysis
+        // every line is "<heap>: insert ns, extract ns; ..." over warehouseData6 ... warehouseData26
         int dataSize = 26;
-        StringBuilder stringBuilder = new StringBuilder();
+        int[] arities = {4, 8};
+        StringBuilder itemHeapResult = new StringBuilder("binary: ");
+        StringBuilder packedHeapResult = new StringBuilder("packed: ");
+        StringBuilder[] dAryResults = new StringBuilder[arities.length];
+        for (int a = 0; a < arities.length; a++) {
+            dAryResults[a] = new StringBuilder(arities[a] + "-ary: ");
+        }
         Item[] warehouseItems;
-        MinHeap minHeap;
-        long start, end, duration;
-        Item temp;
         for (int i = 6; i <= dataSize; i++) {
-            duration = 0;
             warehouseItems = GUI.generateItems("warehouseData" + i + ".txt");
-            minHeap = new MinHeap(warehouseItems.length);
-            for (Item item : warehouseItems) {
-                minHeap.insert(item);
+            appendCost(itemHeapResult, create(false, warehouseItems.length), warehouseItems);
+            appendCost(packedHeapResult, create(true, warehouseItems.length), warehouseItems);
+            for (int a = 0; a < arities.length; a++) {
+                appendCost(dAryResults[a], new DAryHeap(warehouseItems.length, arities[a]), warehouseItems);
             }
+        }
+        System.out.println(itemHeapResult.toString().trim());
+        System.out.println(packedHeapResult.toString().trim());
+        for (StringBuilder dAryResult : dAryResults) {
+            System.out.println(dAryResult.toString().trim());
+        }
+
+        // dispatch waves: "k extractMin ns, extractTopK(k) ns; ..." per wave over the same files, for k = 256 and
+        // k = n / 4
+        StringBuilder smallWaveResult = new StringBuilder("wave of 256: ");
+        StringBuilder largeWaveResult = new StringBuilder("wave of n/4: ");
+        // warm up both paths first, so the small files are not measured in the interpreter
+        warehouseItems = GUI.generateItems("warehouseData14.txt");
+        for (int round = 0; round < 20; round++) {
+            appendWaveCost(new StringBuilder(), warehouseItems, 256);
+            appendWaveCost(new StringBuilder(), warehouseItems, warehouseItems.length / 4);
+        }
+        for (int i = 6; i <= dataSize; i++) {
+            warehouseItems = GUI.generateItems("warehouseData" + i + ".txt");
+            appendWaveCost(smallWaveResult, warehouseItems, Math.min(256, warehouseItems.length));
+            appendWaveCost(largeWaveResult, warehouseItems, warehouseItems.length / 4);
+        }
+        System.out.println(smallWaveResult.toString().trim());
+        System.out.println(largeWaveResult.toString().trim());
+    }
+
+    /**
+     * Measure dispatching waves of the k soonest items until half of the warehouse is gone, once with k
+     * extractMin calls per wave and once with extractTopK, on two heaps of the same items
+     *
+     * @param result         output line, average ns per wave
+     * @param warehouseItems all items
+     * @param k              wave size
+     */
+    private static void appendWaveCost(StringBuilder result, Item[] warehouseItems, int k) {
+        Item[] wave = new Item[k];
+        int waves = Math.max(1, warehouseItems.length / 2 / k);
+        int rounds = 10;
+        long loopTime = 0, batchTime = 0;
+        for (int round = 0; round < rounds; round++) {
+            MinHeap loopHeap = new MinHeap(warehouseItems);
+            MinHeap batchHeap = new MinHeap(warehouseItems);
+            for (int w = 0; w < waves; w++) {
+                long start = System.nanoTime();
+                for (int j = 0; j < k; j++) {
+                    wave[j] = loopHeap.extractMin();
+                }
+                loopTime += System.nanoTime() - start;
 
-            for (int j = 0; j < 10000; j++) {
-                temp = minHeap.extractMin();
                 start = System.nanoTime();
-                minHeap.insert(temp);
-                end = System.nanoTime();
-                duration = duration + end - start;
+                batchHeap.extractTopK(k, wave);
+                batchTime += System.nanoTime() - start;
             }
-            stringBuilder.append(duration / 10000).append(", ");
         }
-        System.out.println(stringBuilder.toString().trim());
+        result.append(loopTime / rounds / waves).append(", ").append(batchTime / rounds / waves).append("; ");
+    }
+
+    /**
+     * Fill the heap with all items, then measure the average extract and insert time of 10000 rounds
+     *
+     * @param result         output line
+     * @param minHeap        an empty heap
+     * @param warehouseItems all items
+     */
+    private static void appendCost(StringBuilder result, DeadlineQueue minHeap, Item[] warehouseItems) {
+        long start, end, insertDuration = 0, extractDuration = 0;
+        Item temp;
+        for (Item item : warehouseItems) {
+            minHeap.insert(item);
+        }
+
+        for (int j = 0; j < 10000; j++) {
+            start = System.nanoTime();
+            temp = minHeap.extractMin();
+            end = System.nanoTime();
+            extractDuration = extractDuration + end - start;
+            start = System.nanoTime();
+            minHeap.insert(temp);
+            end = System.nanoTime();
+            insertDuration = insertDuration + end - start;
+        }
+        result.append(insertDuration / 10000).append(", ").append(extractDuration / 10000).append("; ");
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 
 /**
@@ -8,8 +9,26 @@ import java.util.PriorityQueue;
  */
 public class MyGraph {
 
+    /**
+     * Priority queue used by Dijkstra's algorithm
+     */
+    public enum QueueMode {
+        // java.util.PriorityQueue, a changed vertex is removed (O(n)) and added again
+        PRIORITY_QUEUE,
+        // DistanceHeap, a changed vertex is moved up in O(log n)
+        INDEXED,
+        // LazyDistanceHeap, a changed vertex is added again and its old entry skipped later
+        LAZY,
+        // BucketQueue (Dial), only for integer weights in [0, BucketQueue.MAX_WEIGHT]
+        BUCKET
+    }
+
     // All vertices in a graph
     private ArrayList<Vertex> vertices;
+    // largest edge weight so far, -1 once a weight is not an integer in [0, BucketQueue.MAX_WEIGHT]
+    private int maxIntegerWeight;
+    // search state of dijkstra(start), the vertices themselves hold none
+    private SearchWorkspace workspace;
 
     // Constructor
     public MyGraph(int verticesNum) {
@@ -19,6 +38,7 @@ public class MyGraph {
         for (int i = 0; i < verticesNum; i++) {
             this.vertices.add(new Vertex(i));
         }
+        this.maxIntegerWeight = 0;
     }
 
     /**
@@ -31,6 +51,20 @@ public class MyGraph {
     public void addEdge(int start, int end, double weight) {
         Edge newEdge = new Edge(this.vertices.get(start), this.vertices.get(end), weight);
         vertices.get(start).getEdges().add(newEdge);
+        if (weight >= 0 && weight <= BucketQueue.MAX_WEIGHT && weight == Math.floor(weight)) {
+            if (maxIntegerWeight >= 0) maxIntegerWeight = Math.max(maxIntegerWeight, (int) weight);
+        } else {
+            maxIntegerWeight = -1;
+        }
+    }
+
+    /**
+     * Whether all edge weights are small non-negative integers, so that the BUCKET mode can be used
+     *
+     * @return true: bucket queue possible
+     */
+    public boolean hasSmallIntegerWeights() {
+        return maxIntegerWeight >= 0;
     }
 
     /**
@@ -49,28 +83,80 @@ public class MyGraph {
     }
 
     /**
-     * Compute the shortest distance between the start vertex and all other vertices in the graph
+     * Compute the shortest distance between the start vertex and all other vertices in the graph,
+     * the result is kept in the graph's own workspace for printShortestPath
      *
      * @param start the start vertex
      */
     public void dijkstra(Vertex start) {
+        dijkstra(start, defaultWorkspace());
+    }
+
+    /**
+     * Compute the shortest distance with the given queue, the result is kept in the graph's own workspace
+     *
+     * @param start the start vertex
+     * @param mode  priority queue to use
+     */
+    public void dijkstra(Vertex start, QueueMode mode) {
+        dijkstra(start, mode, defaultWorkspace());
+    }
 
-        start.setMinDistance(0);
-        PriorityQueue<Vertex> queue = new PriorityQueue<>();
+    /**
+     * Compute the shortest distance between the start vertex and all other vertices in the graph
+     *
+     * @param start     the start vertex
+     * @param workspace receives the distances and predecessors, one per thread
+     */
+    public void dijkstra(Vertex start, SearchWorkspace workspace) {
+        dijkstra(start, hasSmallIntegerWeights() ? QueueMode.BUCKET : QueueMode.INDEXED, workspace);
+    }
+
+    /**
+     * Compute the shortest distance between the start vertex and all other vertices in the graph.
+     * The graph itself is not written, so several threads can search it at once with one workspace each.
+     *
+     * @param start     the start vertex
+     * @param mode      priority queue to use
+     * @param workspace receives the distances and predecessors, see SearchWorkspace
+     */
+    public void dijkstra(Vertex start, QueueMode mode, SearchWorkspace workspace) {
+        if (mode == QueueMode.BUCKET && !hasSmallIntegerWeights()) {
+            throw new IllegalStateException("Edge weights are not integers in [0, " + BucketQueue.MAX_WEIGHT + "].");
+        }
+        workspace.checkCapacity(vertices.size());
+        workspace.begin(start.getId());
+        switch (mode) {
+            case PRIORITY_QUEUE:
+                dijkstraPriorityQueue(start, workspace);
+                break;
+            case LAZY:
+                dijkstraLazy(start, workspace);
+                break;
+            case BUCKET:
+                dijkstraBucket(start, workspace);
+                break;
+            default:
+                dijkstraIndexed(start, workspace);
+        }
+    }
+
+    private void dijkstraPriorityQueue(Vertex start, SearchWorkspace workspace) {
+        // the original queue, kept as a baseline: it allocates and removes in O(n)
+        PriorityQueue<Vertex> queue = new PriorityQueue<>(
+                Comparator.comparingDouble((Vertex v) -> workspace.getDistance(v.getId())));
         queue.add(start);
 
         while (!queue.isEmpty()) {
             Vertex next = queue.poll();
+            double distance = workspace.getDistance(next.getId());
             for (Edge e : next.getEdges()) {
                 Vertex end = e.getEnd();
-                double newDistance = next.getMinDistance() + e.getWeight();
-                if (end.getMinDistance() > newDistance) {
+                double newDistance = distance + e.getWeight();
+                if (workspace.getDistance(end.getId()) > newDistance) {
                     // remove it to update
                     queue.remove(end);
-                    end.setMinDistance(newDistance);
-                    end.setPath(new LinkedList<>(next.getPath()));
-                    // add the new next vertex
-                    end.getPath().add(next);
+                    workspace.update(end.getId(), newDistance, next.getId());
                     // add it back
                     queue.add(end);
                 }
@@ -78,21 +164,102 @@ public class MyGraph {
         }
     }
 
+    private void dijkstraIndexed(Vertex start, SearchWorkspace workspace) {
+        DistanceHeap queue = workspace.distanceHeap();
+        queue.insertOrDecrease(start.getId(), 0);
+
+        while (!queue.isEmpty()) {
+            Vertex next = vertices.get(queue.extractMin());
+            double distance = workspace.getDistance(next.getId());
+            for (Edge e : next.getEdges()) {
+                int end = e.getEnd().getId();
+                double newDistance = distance + e.getWeight();
+                if (workspace.getDistance(end) > newDistance) {
+                    workspace.update(end, newDistance, next.getId());
+                    // insert, or move up in place if it is already queued
+                    queue.insertOrDecrease(end, newDistance);
+                }
+            }
+        }
+    }
+
+    private void dijkstraLazy(Vertex start, SearchWorkspace workspace) {
+        LazyDistanceHeap queue = workspace.lazyDistanceHeap();
+        queue.insert(start.getId(), 0);
+
+        while (!queue.isEmpty()) {
+            Vertex next = vertices.get(queue.extractMin());
+            // an older entry of a vertex that was already settled through a shorter one
+            if (workspace.isSettled(next.getId())) continue;
+            workspace.settle(next.getId());
+            double distance = workspace.getDistance(next.getId());
+            for (Edge e : next.getEdges()) {
+                int end = e.getEnd().getId();
+                double newDistance = distance + e.getWeight();
+                if (workspace.getDistance(end) > newDistance) {
+                    workspace.update(end, newDistance, next.getId());
+                    queue.insert(end, newDistance);
+                }
+            }
+        }
+    }
+
+    private void dijkstraBucket(Vertex start, SearchWorkspace workspace) {
+        BucketQueue queue = workspace.bucketQueue(maxIntegerWeight);
+        queue.insertOrDecrease(start.getId(), 0);
+
+        while (!queue.isEmpty()) {
+            Vertex next = vertices.get(queue.extractMin());
+            double distance = workspace.getDistance(next.getId());
+            for (Edge e : next.getEdges()) {
+                int end = e.getEnd().getId();
+                // integer weights keep every distance an exact integer in a double
+                double newDistance = distance + e.getWeight();
+                if (workspace.getDistance(end) > newDistance) {
+                    workspace.update(end, newDistance, next.getId());
+                    queue.insertOrDecrease(end, (long) newDistance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Workspace of dijkstra(start) and printShortestPath, created on first use
+     *
+     * @return the graph's own workspace
+     */
+    private SearchWorkspace defaultWorkspace() {
+        if (workspace == null) {
+            workspace = new SearchWorkspace(vertices.size());
+        }
+        return workspace;
+    }
+
+    /**
+     * Rebuild the shortest path to a vertex from the last dijkstra(start) call
+     *
+     * @param destination the destination place corresponding vertex
+     * @return vertex ids from the start to the destination inclusive, empty if the destination is unreachable
+     */
+    public List<Integer> getShortestPath(Vertex destination) {
+        return defaultWorkspace().getPath(destination.getId());
+    }
+
     /**
      * Print out the path information
      *
      * @param destination the destination place corresponding vertex
      */
     public void printShortestPath(Vertex destination) {
-        boolean found = false;
         StringBuilder stringBuilder = new StringBuilder("Shortest Path (distance:");
-        stringBuilder.append(destination.getMinDistance()).append(") from warehouse to the place ");
+        stringBuilder.append(defaultWorkspace().getDistance(destination.getId())).append(") from warehouse to the place ");
         stringBuilder.append(destination.getId()).append(" is: ");
-        for (Vertex v : destination.getPath()) {
-            stringBuilder.append(v).append(" -> ");
-            found = true;
-        }
-        if (found) {
+        List<Integer> path = getShortestPath(destination);
+        // the destination itself is printed last, a path of the start alone is no path
+        if (path.size() > 1) {
+            for (int i = 0; i < path.size() - 1; i++) {
+                stringBuilder.append(path.get(i)).append(" -> ");
+            }
             stringBuilder.append(destination.getId());
         } else {
             stringBuilder.append("no path");
@@ -102,26 +269,38 @@ public class MyGraph {
 
     public static void main(String[] args) throws IOException {
         // for empirical analysis
+        // one line per queue mode, average dijkstra ns over graphData3..499
         int graphSize = 500;
-        StringBuilder stringBuilder = new StringBuilder();
+        QueueMode[] modes = QueueMode.values();
+        StringBuilder[] results = new StringBuilder[modes.length];
+        for (int m = 0; m < modes.length; m++) {
+            results[m] = new StringBuilder(modes[m] + ": ");
+        }
         MyGraph myGraph;
         long start, end, duration;
         int vertexNumber;
+        SearchWorkspace workspace;
 
         for (int i = 3; i < graphSize; i++) {
-            duration = 0;
             vertexNumber = 100 * i;
 
             myGraph = GUI.initializeMyGraph("graphData" + i + ".txt", vertexNumber);
+            workspace = new SearchWorkspace(vertexNumber);
 
-            for (int j = 0; j < 10; j++) {
-                start = System.nanoTime();
-                myGraph.dijkstra(myGraph.getVertex(0));
-                end = System.nanoTime();
-                duration = duration + end - start;
+            for (int m = 0; m < modes.length; m++) {
+                if (modes[m] == QueueMode.BUCKET && !myGraph.hasSmallIntegerWeights()) continue;
+                duration = 0;
+                for (int j = 0; j < 10; j++) {
+                    start = System.nanoTime();
+                    myGraph.dijkstra(myGraph.getVertex(0), modes[m], workspace);
+                    end = System.nanoTime();
+                    duration = duration + end - start;
+                }
+                results[m].append(duration / 10).append(", ");
             }
-            stringBuilder.append(duration / 10).append(", ");
         }
-        System.out.println(stringBuilder.toString().trim());
+        for (StringBuilder result : results) {
+            System.out.println(result.toString().trim());
+        }
     }
 }
@@ -0,0 +1,204 @@
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapItemStore keeps the parcels as fixed width records outside the Java heap.
+ * <p>
+ * Every row is one 16 byte record (id, deadline, destination, location) in a chunk of direct ByteBuffers,
+ * 2^20 records per chunk; the first chunk starts small and doubles up to that size, so a small warehouse does
+ * not reserve a full chunk. The garbage collector only sees the chunk array and the buffer objects, so the
+ * records themselves add nothing to its work or to the Java heap.
+ * <p>
+ * What still lives on the Java heap grows with the warehouse: a RowMinHeap over the rows takes 8 bytes per row
+ * (512 MB at 2^26 parcels), and the RowIndex hash map, built on the first lookup once ids are not ascending,
+ * about 18 bytes per row. Direct memory is limited by -XX:MaxDirectMemorySize, which defaults to the maximum
+ * heap size, so a large warehouse on a small heap needs that flag.
+ */
+public class OffHeapItemStore implements ItemStorage {
+
+    private static final int RECORD_BYTES = 16;
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_ROWS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final int FIRST_CHUNK_ROWS = 1 << 10;
+    // field offsets inside a record
+    private static final int ID = 0;
+    private static final int DEADLINE = 4;
+    private static final int DESTINATION = 8;
+    private static final int LOCATION = 12;
+
+    private int size;
+    private ByteBuffer[] chunks;
+    private int chunkCount;
+    // id -> row lookup
+    private final RowIndex index;
+
+    // Constructor
+    public OffHeapItemStore() {
+        this.size = 0;
+        this.chunks = new ByteBuffer[4];
+        this.chunkCount = 0;
+        this.index = new RowIndex();
+    }
+
+    /**
+     * Load a warehouse data file into off-heap records
+     *
+     * @param fileName the input file name
+     * @return store holding one row per line
+     * @throws IOException file not exists
+     */
+    public static OffHeapItemStore load(String fileName) throws IOException {
+        return ItemStore.load(fileName, new OffHeapItemStore());
+    }
+
+    /**
+     * Append a parcel, allocating a new chunk when the last one is full
+     *
+     * @param id          item ID
+     * @param deadline    deadline in format yyMMdd
+     * @param destination destination place code
+     * @param location    warehouse location
+     * @return row of the new parcel
+     */
+    public int add(int id, int deadline, int destination, int location) {
+        if (size == Integer.MAX_VALUE) throw new IllegalStateException("Store is full.");
+        int row = size;
+        if ((row >>> CHUNK_BITS) == chunkCount) {
+            addChunk();
+        } else if (chunkCount == 1 && row * RECORD_BYTES == chunks[0].capacity()) {
+            growFirstChunk();
+        }
+        ByteBuffer chunk = chunks[row >>> CHUNK_BITS];
+        int offset = (row & CHUNK_MASK) * RECORD_BYTES;
+        chunk.putInt(offset + ID, id);
+        chunk.putInt(offset + DEADLINE, deadline);
+        chunk.putInt(offset + DESTINATION, destination);
+        chunk.putInt(offset + LOCATION, location);
+        size++;
+        index.added(this, id, row);
+        return row;
+    }
+
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            ByteBuffer[] temp = new ByteBuffer[2 * chunks.length];
+            System.arraycopy(chunks, 0, temp, 0, chunkCount);
+            chunks = temp;
+        }
+        int rows = chunkCount == 0 ? FIRST_CHUNK_ROWS : CHUNK_ROWS;
+        chunks[chunkCount++] = ByteBuffer.allocateDirect(rows * RECORD_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Double the first chunk, up to the size of every other chunk
+     */
+    private void growFirstChunk() {
+        int rows = Math.min(2 * chunks[0].capacity() / RECORD_BYTES, CHUNK_ROWS);
+        ByteBuffer old = chunks[0].duplicate();
+        old.clear();
+        ByteBuffer temp = ByteBuffer.allocateDirect(rows * RECORD_BYTES).order(ByteOrder.nativeOrder());
+        temp.put(old);
+        temp.clear();
+        chunks[0] = temp;
+    }
+
+    /**
+     * Read one field of a record
+     *
+     * @param row   given row
+     * @param field field offset
+     * @return field value
+     */
+    private int field(int row, int field) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("No row " + row + ".");
+        return chunks[row >>> CHUNK_BITS].getInt((row & CHUNK_MASK) * RECORD_BYTES + field);
+    }
+
+    /**
+     * Find the row of an item ID: O(1) for dense ids, binary search for ascending ids, otherwise hashed
+     *
+     * @param itemID given item ID
+     * @return row, MISSING if absent
+     */
+    public int rowOf(int itemID) {
+        return index.rowOf(this, itemID);
+    }
+
+    // record getters
+    public int getId(int row) {
+        return field(row, ID);
+    }
+
+    public int getDeadline(int row) {
+        return field(row, DEADLINE);
+    }
+
+    public int getDestination(int row) {
+        return field(row, DESTINATION);
+    }
+
+    public int getLocation(int row) {
+        return field(row, LOCATION);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis of garbage collection against Item objects and on-heap columns
+        // every line is "<storage>: load ms, heap bytes/item, full gc ms with the store live" for 2^16 to 2^22 items
+        StringBuilder objectResult = new StringBuilder("Item[]: ");
+        StringBuilder columnResult = new StringBuilder("ItemStore: ");
+        StringBuilder offHeapResult = new StringBuilder("OffHeapItemStore: ");
+        for (int i = 16; i <= 22; i += 2) {
+            String fileName = "warehouseData" + i + ".txt";
+
+            long before = RedBlackTree.usedMemory();
+            long start = System.nanoTime();
+            Item[] warehouseItems = GUI.generateItems(fileName);
+            long end = System.nanoTime();
+            appendCost(objectResult, end - start, before, warehouseItems, warehouseItems.length);
+            warehouseItems = null;
+
+            before = RedBlackTree.usedMemory();
+            start = System.nanoTime();
+            ItemStore store = ItemStore.load(fileName);
+            end = System.nanoTime();
+            appendCost(columnResult, end - start, before, store, store.size());
+            store = null;
+
+            before = RedBlackTree.usedMemory();
+            start = System.nanoTime();
+            OffHeapItemStore offHeapStore = load(fileName);
+            end = System.nanoTime();
+            appendCost(offHeapResult, end - start, before, offHeapStore, offHeapStore.size());
+        }
+        System.out.println(objectResult.toString().trim());
+        System.out.println(columnResult.toString().trim());
+        System.out.println(offHeapResult.toString().trim());
+    }
+
+    /**
+     * Append load time, retained heap per item and the pause of one full collection while the store is live
+     *
+     * @param result   output line
+     * @param loadTime load time in ns
+     * @param before   used heap before loading
+     * @param store    the loaded storage, kept reachable until measured
+     * @param n        number of items
+     */
+    private static void appendCost(StringBuilder result, long loadTime, long before, Object store, int n) {
+        long heapBytes = RedBlackTree.usedMemory() - before;
+        long gc = ItemStore.gcMillis();
+        System.gc();
+        gc = ItemStore.gcMillis() - gc;
+        result.append(loadTime / 1000000).append(", ")
+                .append(Math.max(heapBytes, 0) / n).append(", ")
+                .append(gc).append("; ");
+        Reference.reachabilityFence(store);
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * PackedMinHeap is a min heap ordered by deadline that keeps primitive keys only.
+ * <p>
+ * Every heap slot is a single long: the deadline lives in the high 32 bits and the index of the item
+ * in the side table lives in the low 32 bits. Comparing two slots is therefore one long comparison,
+ * and swim/sink never touch an Item object. Items are only dereferenced on extractMin and peek.
+ */
+public class PackedMinHeap implements DeadlineQueue {
+
+    private static final long SLOT_MASK = 0xFFFFFFFFL;
+
+    public int size;
+    // packed (deadline, slot) keys, index 0 unused like MinHeap
+    private long[] keys;
+    // side table holding the actual items
+    private Item[] items;
+    // stack of free slots in the side table
+    private int[] freeSlots;
+    private int freeCount;
+
+    // Constructors
+    public PackedMinHeap(int maxN) {
+        this.size = 0;
+        this.keys = new long[maxN + 1];
+        this.items = new Item[maxN];
+        this.freeSlots = new int[maxN];
+        this.freeCount = 0;
+        releaseSlots(0, maxN);
+    }
+
+    /**
+     * Create a heap holding all given items, heapified bottom-up in O(n)
+     *
+     * @param initialItems all items
+     */
+    public PackedMinHeap(Item[] initialItems) {
+        int n = initialItems.length;
+        this.size = n;
+        this.keys = new long[n + 1];
+        this.items = initialItems.clone();
+        this.freeSlots = new int[n];
+        this.freeCount = 0;
+        for (int i = 0; i < n; i++) {
+            keys[i + 1] = pack(initialItems[i].getDeadline(), i);
+        }
+        build();
+    }
+
+    /**
+     * Push the side table slots [from, to) onto the free stack, lowest slot on top
+     *
+     * @param from first slot
+     * @param to   end slot (exclusive)
+     */
+    private void releaseSlots(int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            freeSlots[freeCount++] = i;
+        }
+    }
+
+    /**
+     * Double the key array and the side table
+     */
+    private void grow() {
+        int oldCapacity = items.length;
+        int capacity = Math.max(2 * oldCapacity, 1);
+        long[] tempKeys = new long[capacity + 1];
+        System.arraycopy(keys, 1, tempKeys, 1, size);
+        keys = tempKeys;
+        Item[] tempItems = new Item[capacity];
+        System.arraycopy(items, 0, tempItems, 0, oldCapacity);
+        items = tempItems;
+        // every old slot is in use, so the free stack only holds the new ones
+        freeSlots = new int[capacity];
+        freeCount = 0;
+        releaseSlots(oldCapacity, capacity);
+    }
+
+    /**
+     * Pack a deadline and a side table slot into one key
+     *
+     * @param deadline item deadline
+     * @param slot     side table index
+     * @return packed key
+     */
+    private static long pack(int deadline, int slot) {
+        return ((long) deadline << 32) | (slot & SLOT_MASK);
+    }
+
+    /**
+     * Read the side table slot back from a packed key
+     *
+     * @param key packed key
+     * @return side table index
+     */
+    private static int slotOf(long key) {
+        return (int) (key & SLOT_MASK);
+    }
+
+    /**
+     * Insert a new item into the current min heap
+     *
+     * @param newItem a new item created by users
+     */
+    public void insert(Item newItem) {
+        if (freeCount == 0) grow();
+        int slot = freeSlots[--freeCount];
+        items[slot] = newItem;
+        keys[++size] = pack(newItem.getDeadline(), slot);
+        swim(size);
+    }
+
+    /**
+     * Shift the kth key up
+     *
+     * @param k index
+     */
+    private void swim(int k) {
+        long key = keys[k];
+        while (k > 1 && keys[k / 2] > key) {
+            keys[k] = keys[k / 2];
+            k = k / 2;
+        }
+        keys[k] = key;
+    }
+
+    /**
+     * minHeapify at index k
+     *
+     * @param k index
+     */
+    private void sink(int k) {
+        long key = keys[k];
+        while (2 * k <= size) {
+            int j = 2 * k;
+            if (j < size && keys[j] > keys[j + 1]) j++;
+            if (key <= keys[j]) break;
+            keys[k] = keys[j];
+            k = j;
+        }
+        keys[k] = key;
+    }
+
+    /**
+     * Extract the minimum element in heap
+     *
+     * @return the item with soonest deadline
+     */
+    public Item extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        int slot = slotOf(keys[1]);
+        Item min = items[slot];
+        items[slot] = null;
+        freeSlots[freeCount++] = slot;
+        keys[1] = keys[size--];
+        if (size > 0) sink(1);
+        return min;
+    }
+
+    /**
+     * Return the minimum item
+     *
+     * @return the item with soonest deadline
+     */
+    public Item peek() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        return items[slotOf(keys[1])];
+    }
+
+    /**
+     * Build the min-heap
+     */
+    public void build() {
+        for (int i = size / 2; i >= 1; i--) {
+            sink(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,324 @@
+import java.io.IOException;
+
+/**
+ * PairingHeap is a meldable deadline queue: a heap ordered tree where every node keeps its children
+ * in a linked list.
+ * <p>
+ * Two heaps are melded by linking their roots, O(1), so consolidating depot or truck queues does not
+ * reinsert any item. Insert is a meld with a one node heap, extractMin merges the children of the root
+ * in two passes (amortized O(log n)), and decreaseKey cuts the node with its subtree and links it to the root.
+ */
+public class PairingHeap implements DeadlineQueue {
+
+    private int size;
+    private Node root;
+    // nodes of this heap point to this owner, directly or through the owners of heaps melded into it
+    private Owner owner = new Owner();
+    // scratch list of the two-pass merge, reused between calls
+    private Node[] pairs = new Node[16];
+
+    /**
+     * A stored item, returned by insertNode so that its deadline can be decreased later.
+     * A decreased deadline replaces the item with a copy, the shared Item itself is never changed.
+     */
+    public static final class Node {
+        private Item item;
+        // null once the node has been extracted
+        private Owner owner;
+        private Node child;
+        private Node sibling;
+        // parent if this node is the first child, otherwise the left sibling
+        private Node previous;
+
+        // Constructor
+        private Node(Item item, Owner owner) {
+            this.item = item;
+            this.owner = owner;
+        }
+
+        public Item getItem() {
+            return item;
+        }
+    }
+
+    /**
+     * Identity of a heap shared by its nodes. A meld forwards the owner of the consumed heap instead of
+     * visiting its nodes, so a meld stays O(1).
+     */
+    private static final class Owner {
+        private Owner meldedInto;
+    }
+
+    // Constructors
+    public PairingHeap() {
+        this.size = 0;
+        this.root = null;
+    }
+
+    /**
+     * Create a heap holding all given items, O(n)
+     *
+     * @param initialItems all items
+     */
+    public PairingHeap(Item[] initialItems) {
+        this();
+        for (Item item : initialItems) {
+            insert(item);
+        }
+    }
+
+    /**
+     * Insert a new item into the heap
+     *
+     * @param newItem a new item created by users
+     */
+    public void insert(Item newItem) {
+        insertNode(newItem);
+    }
+
+    /**
+     * Insert a new item and return its node for a later decreaseKey
+     *
+     * @param newItem a new item created by users
+     * @return node holding the item
+     */
+    public Node insertNode(Item newItem) {
+        Node node = new Node(newItem, owner);
+        root = root == null ? node : link(root, node);
+        size++;
+        return node;
+    }
+
+    /**
+     * Move all items of another heap into this one in O(1), the other heap is left empty
+     *
+     * @param other heap to consume
+     */
+    public void meld(PairingHeap other) {
+        if (other == this || other.root == null) return;
+        root = root == null ? other.root : link(root, other.root);
+        size += other.size;
+        other.root = null;
+        other.size = 0;
+        other.owner.meldedInto = owner;
+        other.owner = new Owner();
+    }
+
+    /**
+     * Whether a node is currently stored in this heap
+     *
+     * @param node node returned by insertNode
+     * @return true: the node belongs to this heap and has not been extracted
+     */
+    private boolean owns(Node node) {
+        if (node.owner == null) return false;
+        Owner current = node.owner;
+        while (current.meldedInto != null) {
+            current = current.meldedInto;
+        }
+        // shortcut later checks of the same node
+        node.owner = current;
+        return current == owner;
+    }
+
+    /**
+     * Make the root with the later deadline the first child of the other root
+     *
+     * @param a a tree root
+     * @param b another tree root
+     * @return the new root
+     */
+    private static Node link(Node a, Node b) {
+        if (b.item.getDeadline() < a.item.getDeadline()) {
+            Node temp = a;
+            a = b;
+            b = temp;
+        }
+        b.sibling = a.child;
+        if (a.child != null) a.child.previous = b;
+        b.previous = a;
+        a.child = b;
+        a.sibling = null;
+        a.previous = null;
+        return a;
+    }
+
+    /**
+     * Extract the minimum element in heap
+     *
+     * @return the item with soonest deadline
+     */
+    public Item extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        Node min = root;
+        root = mergePairs(min.child);
+        min.child = null;
+        min.owner = null;
+        size--;
+        return min.item;
+    }
+
+    /**
+     * Merge a list of sibling trees into one: link them pairwise from left to right,
+     * then link the pairs from right to left
+     *
+     * @param first first tree of the list
+     * @return the merged tree, null if the list is empty
+     */
+    private Node mergePairs(Node first) {
+        if (first == null) return null;
+        int count = 0;
+        Node node = first;
+        while (node != null) {
+            Node a = node;
+            Node b = a.sibling;
+            node = b == null ? null : b.sibling;
+            a.sibling = null;
+            a.previous = null;
+            if (b != null) {
+                b.sibling = null;
+                b.previous = null;
+                a = link(a, b);
+            }
+            if (count == pairs.length) {
+                Node[] temp = new Node[2 * pairs.length];
+                System.arraycopy(pairs, 0, temp, 0, count);
+                pairs = temp;
+            }
+            pairs[count++] = a;
+        }
+        Node merged = pairs[--count];
+        pairs[count] = null;
+        while (count > 0) {
+            merged = link(pairs[--count], merged);
+            pairs[count] = null;
+        }
+        return merged;
+    }
+
+    /**
+     * Move the deadline of a stored node forward. The node then holds a copy of its item with the new deadline,
+     * so peek and extractMin hand out items whose deadline matches the order they come out in
+     *
+     * @param node        node returned by insertNode of this heap and not extracted yet
+     * @param newDeadline the new deadline, no later than the current one
+     * @return the stored copy of the item with the new deadline
+     */
+    public Item decreaseKey(Node node, int newDeadline) {
+        if (!owns(node)) {
+            throw new IllegalArgumentException("Node is not stored in this heap.");
+        }
+        if (newDeadline > node.item.getDeadline()) {
+            throw new IllegalArgumentException("New deadline is later than the current one.");
+        }
+        node.item = node.item.withDeadline(newDeadline);
+        if (node == root) return node.item;
+        // cut the subtree out of its sibling list and link it back at the top
+        if (node.previous.child == node) {
+            node.previous.child = node.sibling;
+        } else {
+            node.previous.sibling = node.sibling;
+        }
+        if (node.sibling != null) node.sibling.previous = node.previous;
+        node.sibling = null;
+        node.previous = null;
+        root = link(root, node);
+        return node.item;
+    }
+
+    /**
+     * Return the minimum item
+     *
+     * @return the item with soonest deadline
+     */
+    public Item peek() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        return root.item;
+    }
+
+    /**
+     * The tree is always heap ordered, nothing to do
+     */
+    public void build() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // for empirical analysis against the binary min-heap on depot consolidation
+        // the warehouse is split into 1024 shard queues which are merged into one, then the merged queue is drained
+        // every line is "<queue>: merge ns/shard, extractMin ns/op" for 2^16 to 2^22 items
+        int shards = 1024;
+        StringBuilder heapResult = new StringBuilder("binary, reinsert: ");
+        StringBuilder rebuildResult = new StringBuilder("binary, concat and heapify: ");
+        StringBuilder pairingResult = new StringBuilder("pairing, meld: ");
+        Item[] warehouseItems;
+        long start, end;
+        for (int i = 16; i <= 22; i += 2) {
+            warehouseItems = GUI.generateItems("warehouseData" + i + ".txt");
+            int shardSize = warehouseItems.length / shards;
+            Item[][] shardItems = new Item[shards][shardSize];
+            for (int s = 0; s < shards; s++) {
+                System.arraycopy(warehouseItems, s * shardSize, shardItems[s], 0, shardSize);
+            }
+
+            MinHeap[] heaps = new MinHeap[shards];
+            for (int s = 0; s < shards; s++) {
+                heaps[s] = new MinHeap(shardItems[s]);
+            }
+            start = System.nanoTime();
+            for (int s = 1; s < shards; s++) {
+                while (heaps[s].size() > 0) {
+                    heaps[0].insert(heaps[s].extractMin());
+                }
+            }
+            end = System.nanoTime();
+            heapResult.append((end - start) / (shards - 1)).append(", ");
+            appendDrainCost(heapResult, heaps[0]);
+
+            // the cheapest array alternative: concatenate the shard arrays and heapify once
+            start = System.nanoTime();
+            Item[] merged = new Item[shards * shardSize];
+            for (int s = 0; s < shards; s++) {
+                System.arraycopy(shardItems[s], 0, merged, s * shardSize, shardSize);
+            }
+            MinHeap rebuilt = new MinHeap(merged);
+            end = System.nanoTime();
+            rebuildResult.append((end - start) / (shards - 1)).append(", ");
+            appendDrainCost(rebuildResult, rebuilt);
+
+            PairingHeap[] pairingHeaps = new PairingHeap[shards];
+            for (int s = 0; s < shards; s++) {
+                pairingHeaps[s] = new PairingHeap(shardItems[s]);
+            }
+            start = System.nanoTime();
+            for (int s = 1; s < shards; s++) {
+                pairingHeaps[0].meld(pairingHeaps[s]);
+            }
+            end = System.nanoTime();
+            pairingResult.append((end - start) / (shards - 1)).append(", ");
+            appendDrainCost(pairingResult, pairingHeaps[0]);
+        }
+        System.out.println(heapResult.toString().trim());
+        System.out.println(rebuildResult.toString().trim());
+        System.out.println(pairingResult.toString().trim());
+    }
+
+    /**
+     * Measure the average extractMin time of draining the whole queue
+     *
+     * @param result output line
+     * @param queue  a full queue
+     */
+    private static void appendDrainCost(StringBuilder result, DeadlineQueue queue) {
+        int n = queue.size();
+        long start = System.nanoTime();
+        while (queue.size() > 0) {
+            queue.extractMin();
+        }
+        long end = System.nanoTime();
+        result.append((end - start) / n).append("; ");
+    }
+}
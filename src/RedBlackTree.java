@@ -1,10 +1,17 @@
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.TreeMap;
 
-public class RedBlackTree {
+public class RedBlackTree implements ItemIndex {
 
+    // shared black leaf, every missing child and the parent of the root point to it
+    private final Node nil;
     // tree root node
     private Node root;
+    // incremented on every change, lets snapshots of the tree detect that they are stale
+    private int version;
 
     // Enum color class
     public enum Color {
@@ -19,21 +26,25 @@ public class RedBlackTree {
         Item item;
         Node parent;
         Node left, right;
+        // number of nodes in the subtree rooted here, 0 for nil
+        int count;
 
         // Constructors
         public Node() {
             this.item = null;
             this.color = Color.BLACK;
+            this.parent = this;
+            this.left = this;
+            this.right = this;
         }
 
         public Node(Item item) {
             this.color = Color.RED;
             this.item = item;
-            this.parent = null;
-            this.left = new Node();
-            this.right = new Node();
-            this.left.parent = this;
-            this.right.parent = this;
+            this.count = 1;
+            this.parent = nil;
+            this.left = nil;
+            this.right = nil;
         }
 
         /**
@@ -48,34 +59,63 @@ public class RedBlackTree {
 
     // Constructors
     public RedBlackTree(Item[] items) {
-        this.root = null;
-        for (Item i : items) {
-            this.add(i);
+        this.nil = new Node();
+        this.root = nil;
+        if (isSorted(items)) {
+            // the warehouse files are sorted by id, build the tree directly in O(n)
+            this.root = buildBalanced(items, 0, items.length - 1, 0, redDepth(items.length), nil);
+        } else {
+            for (Item i : items) {
+                this.add(i);
+            }
         }
     }
 
     /**
-     * Basic insert a node into a tree, without recolor
+     * Check whether the item ids are strictly increasing
      *
-     * @param root pivot node
-     * @param node given node
+     * @param items given items
+     * @return true: sorted without duplicate ids
      */
-    private void recursiveInsert(Node root, Node node) {
-        if (root.item.more(node.item)) {
-            if (root.left.item == null) {
-                root.left = node;
-                node.parent = root;
-            } else {
-                recursiveInsert(root.left, node);
-            }
-        } else if (root.item.less(node.item)) {
-            if (root.right.item == null) {
-                root.right = node;
-                node.parent = root;
-            } else {
-                recursiveInsert(root.right, node);
-            }
+    static boolean isSorted(Item[] items) {
+        for (int i = 1; i < items.length; i++) {
+            if (items[i - 1].getId() >= items[i].getId()) return false;
         }
+        return true;
+    }
+
+    /**
+     * Depth of the only level that may be incomplete in a tree built by halving n sorted items.
+     * Coloring exactly that level red gives every path the same number of black nodes.
+     *
+     * @param n number of items
+     * @return depth (root is 0) whose nodes are red
+     */
+    static int redDepth(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n + 1);
+    }
+
+    /**
+     * Build a balanced subtree from sorted items[lo..hi] by always taking the middle item as root
+     *
+     * @param items    sorted items
+     * @param lo       first index
+     * @param hi       last index
+     * @param depth    depth of the subtree root
+     * @param redDepth depth whose nodes are red
+     * @param parent   parent of the subtree root
+     * @return subtree root, nil if empty
+     */
+    private Node buildBalanced(Item[] items, int lo, int hi, int depth, int redDepth, Node parent) {
+        if (lo > hi) return nil;
+        int mid = (lo + hi) >>> 1;
+        Node node = new Node(items[mid]);
+        node.color = depth == redDepth ? Color.RED : Color.BLACK;
+        node.count = hi - lo + 1;
+        node.parent = parent;
+        node.left = buildBalanced(items, lo, mid - 1, depth + 1, redDepth, node);
+        node.right = buildBalanced(items, mid + 1, hi, depth + 1, redDepth, node);
+        return node;
     }
 
     /**
@@ -84,33 +124,54 @@ public class RedBlackTree {
      * @param node pivot node
      */
     private void insert(Node node) {
-        if (this.root == null) {
-            this.root = node;
+        int itemID = node.item.getId();
+        // walk down to the leaf position of the new node, every node on the way gets one more descendant
+        Node parent = nil;
+        Node current = root;
+        while (current != nil) {
+            int currentID = current.item.getId();
+            if (itemID == currentID) {
+                // same id, replace the stored item like TreeMap.put does and take back the counts of the path
+                current.item = node.item;
+                for (Node ancestor = current.parent; ancestor != nil; ancestor = ancestor.parent) {
+                    ancestor.count--;
+                }
+                return;
+            }
+            parent = current;
+            current.count++;
+            current = itemID < currentID ? current.left : current.right;
+        }
+        node.parent = parent;
+        if (parent == nil) {
+            root = node;
+        } else if (itemID < parent.item.getId()) {
+            parent.left = node;
         } else {
-            recursiveInsert(root, node);
+            parent.right = node;
         }
-        while (!node.item.equals(root.item) && node.parent.isRed()) {
-            boolean isLeft = node.parent == node.parent.parent.left;
-            Node uncle = isLeft ? node.parent.parent.right : node.parent.parent.left;
+
+        while (node.parent.isRed()) {
+            Node grandparent = node.parent.parent;
+            boolean isLeft = node.parent == grandparent.left;
+            Node uncle = isLeft ? grandparent.right : grandparent.left;
             if (uncle.isRed()) {
                 // uncle node is red, no rotate, just recolor it
                 node.parent.color = Color.BLACK;
                 uncle.color = Color.BLACK;
-                node.parent.parent.color = Color.RED;
-                node = node.parent.parent;
+                grandparent.color = Color.RED;
+                node = grandparent;
             } else {
                 // uncle node is black
-                if (node.item.equals(isLeft ? node.parent.right.item : node.parent.left.item)) {
+                if (node == (isLeft ? node.parent.right : node.parent.left)) {
                     node = node.parent;
                     if (isLeft) {
-                        // uncle is the left node of its parent
+                        // uncle is the right node of the grandparent
                         // node is the right node of its parent
-                        if (node.item.equals(root.item)) root = node.right;
                         leftRotate(node);
                     } else {
-                        // uncle is the right node of its parent
+                        // uncle is the left node of the grandparent
                         // node is the left node of its parent
-                        if (node.item.equals(root.item)) root = node.left;
                         rightRotate(node);
                     }
                 }
@@ -118,10 +179,8 @@ public class RedBlackTree {
                 node.parent.parent.color = Color.RED;
 
                 if (isLeft) {
-                    if (node.parent.parent.item.equals(root.item)) root = node.parent.parent.left;
                     rightRotate(node.parent.parent);
                 } else {
-                    if (node.parent.parent.item.equals(root.item)) root = node.parent.parent.right;
                     leftRotate(node.parent.parent);
                 }
             }
@@ -135,27 +194,170 @@ public class RedBlackTree {
      * @param item given item
      */
     public void add(Item item) {
+        version++;
         insert(new Node(item));
     }
 
+    /**
+     * Remove the item with the given id from the tree
+     *
+     * @param itemID given item ID
+     * @return the removed item, null if absent
+     */
+    public Item remove(int itemID) {
+        Node node = find(itemID);
+        if (node == nil) return null;
+        version++;
+        delete(node);
+        return node.item;
+    }
+
+    /**
+     * Unlink a node from the red black tree and adjust the color
+     *
+     * @param node the node to delete
+     */
+    private void delete(Node node) {
+        // the node that physically leaves its position: node itself, or its successor if it has two children
+        Node moved = node.left == nil || node.right == nil ? node : minimum(node.right);
+        for (Node ancestor = moved.parent; ancestor != nil; ancestor = ancestor.parent) {
+            ancestor.count--;
+        }
+
+        Color removedColor = moved.color;
+        Node child;
+        if (node.left == nil) {
+            child = node.right;
+            transplant(node, node.right);
+        } else if (node.right == nil) {
+            child = node.left;
+            transplant(node, node.left);
+        } else {
+            // the successor takes the place and the color of the deleted node
+            child = moved.right;
+            if (moved.parent == node) {
+                child.parent = moved;
+            } else {
+                transplant(moved, moved.right);
+                moved.right = node.right;
+                moved.right.parent = moved;
+            }
+            transplant(node, moved);
+            moved.left = node.left;
+            moved.left.parent = moved;
+            moved.color = node.color;
+            moved.count = node.count;
+        }
+        if (removedColor == Color.BLACK) deleteFixup(child);
+        // nil may have been used as a temporary parent holder
+        nil.parent = nil;
+    }
+
+    /**
+     * Restore the red black properties after removing a black node above the given one
+     *
+     * @param node the node carrying the extra black
+     */
+    private void deleteFixup(Node node) {
+        while (node != root && !node.isRed()) {
+            boolean isLeft = node == node.parent.left;
+            Node sibling = isLeft ? node.parent.right : node.parent.left;
+            if (sibling.isRed()) {
+                // red sibling, rotate to get a black one
+                sibling.color = Color.BLACK;
+                node.parent.color = Color.RED;
+                if (isLeft) {
+                    leftRotate(node.parent);
+                    sibling = node.parent.right;
+                } else {
+                    rightRotate(node.parent);
+                    sibling = node.parent.left;
+                }
+            }
+            if (!sibling.left.isRed() && !sibling.right.isRed()) {
+                // black sibling with black children, push the extra black up
+                sibling.color = Color.RED;
+                node = node.parent;
+            } else {
+                if (isLeft && !sibling.right.isRed()) {
+                    // the near child is red, turn it into the far one
+                    sibling.left.color = Color.BLACK;
+                    sibling.color = Color.RED;
+                    rightRotate(sibling);
+                    sibling = node.parent.right;
+                } else if (!isLeft && !sibling.left.isRed()) {
+                    sibling.right.color = Color.BLACK;
+                    sibling.color = Color.RED;
+                    leftRotate(sibling);
+                    sibling = node.parent.left;
+                }
+                // the far child is red, one rotation at the parent finishes
+                sibling.color = node.parent.color;
+                node.parent.color = Color.BLACK;
+                if (isLeft) {
+                    sibling.right.color = Color.BLACK;
+                    leftRotate(node.parent);
+                } else {
+                    sibling.left.color = Color.BLACK;
+                    rightRotate(node.parent);
+                }
+                node = root;
+            }
+        }
+        node.color = Color.BLACK;
+    }
+
+    /**
+     * Replace the subtree rooted at one node by the subtree rooted at another
+     *
+     * @param node        the replaced node
+     * @param replacement the new subtree root, may be nil
+     */
+    private void transplant(Node node, Node replacement) {
+        if (node.parent == nil) {
+            root = replacement;
+        } else if (node == node.parent.left) {
+            node.parent.left = replacement;
+        } else {
+            node.parent.right = replacement;
+        }
+        replacement.parent = node.parent;
+    }
+
+    /**
+     * Leftmost node of a subtree
+     *
+     * @param node subtree root, not nil
+     * @return the node with the smallest id
+     */
+    private Node minimum(Node node) {
+        while (node.left != nil) {
+            node = node.left;
+        }
+        return node;
+    }
+
     /**
      * Left rotation
      *
      * @param node pivot node
      */
     private void leftRotate(Node node) {
-        if (node.parent != null) {
-            if (node.parent.left == node) {
-                node.parent.left = node.right;
-            } else {
-                node.parent.right = node.right;
-            }
-            node.right.parent = node.parent;
-            node.parent = node.right;
-            node.right = node.parent.left;
-            node.right.parent = node;
-            node.parent.left = node;
+        Node child = node.right;
+        node.right = child.left;
+        if (child.left != nil) child.left.parent = node;
+        child.parent = node.parent;
+        if (node.parent == nil) {
+            root = child;
+        } else if (node == node.parent.left) {
+            node.parent.left = child;
+        } else {
+            node.parent.right = child;
         }
+        child.left = node;
+        node.parent = child;
+        child.count = node.count;
+        node.count = node.left.count + node.right.count + 1;
     }
 
     /**
@@ -164,36 +366,39 @@ public class RedBlackTree {
      * @param node pivot node
      */
     private void rightRotate(Node node) {
-        if (node.parent != null) {
-            if (node.parent.right == node) {
-                node.parent.right = node.left;
-            } else {
-                node.parent.left = node.left;
-            }
-            node.left.parent = node.parent;
-            node.parent = node.left;
-            node.left = node.parent.right;
-            node.left.parent = node;
-            node.parent.right = node;
+        Node child = node.left;
+        node.left = child.right;
+        if (child.right != nil) child.right.parent = node;
+        child.parent = node.parent;
+        if (node.parent == nil) {
+            root = child;
+        } else if (node == node.parent.right) {
+            node.parent.right = child;
+        } else {
+            node.parent.left = child;
         }
+        child.right = node;
+        node.parent = child;
+        child.count = node.count;
+        node.count = node.left.count + node.right.count + 1;
     }
 
     /**
      * Find a node with given itemID in the tree
      *
-     * @param node   start node
      * @param itemID given item ID
-     * @return the result node
-     */
-    private Node find(Node node, int itemID) {
-        if (node.item == null) return null;
-        if (itemID == node.item.getId()) {
-            return node;
-        } else if (itemID < node.item.getId()) {
-            return find(node.left, itemID);
-        } else {
-            return find(node.right, itemID);
+     * @return the result node, nil if absent
+     */
+    private Node find(int itemID) {
+        Node node = root;
+        while (node != nil) {
+            int nodeID = node.item.getId();
+            if (itemID == nodeID) {
+                return node;
+            }
+            node = itemID < nodeID ? node.left : node.right;
         }
+        return nil;
     }
 
     /**
@@ -203,26 +408,229 @@ public class RedBlackTree {
      * @return item information
      */
     public Item search(int itemID) {
-        Node node = find(root, itemID);
-        if (node != null) {
-            return node.item;
+        return find(itemID).item;
+    }
+
+    public int size() {
+        return root.count;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Copy all items in id order, O(n)
+     *
+     * @param out output array, at least size() long
+     * @return number of items written
+     */
+    public int toSortedArray(Item[] out) {
+        int count = 0;
+        if (root == nil) return 0;
+        for (Node node = minimum(root); node != nil; node = successor(node)) {
+            out[count++] = node.item;
+        }
+        return count;
+    }
+
+    /**
+     * Rank of an id, i.e. the number of stored items with a smaller id
+     *
+     * @param itemID given item ID, does not need to be stored
+     * @return number of smaller ids
+     */
+    public int rank(int itemID) {
+        return countBelow(itemID, false);
+    }
+
+    /**
+     * Count the stored ids below a bound
+     *
+     * @param itemID    bound
+     * @param inclusive true: also count the bound itself
+     * @return number of ids below (or equal to) the bound
+     */
+    private int countBelow(int itemID, boolean inclusive) {
+        int rank = 0;
+        Node node = root;
+        while (node != nil) {
+            int nodeID = node.item.getId();
+            if (itemID < nodeID || (itemID == nodeID && !inclusive)) {
+                node = node.left;
+            } else {
+                rank += node.left.count + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Select the item with the kth smallest id
+     *
+     * @param k rank in [0, size)
+     * @return the item whose rank is k
+     */
+    public Item select(int k) {
+        if (k < 0 || k >= size()) throw new IllegalArgumentException("Rank " + k + " is out of range.");
+        Node node = root;
+        while (true) {
+            int leftCount = node.left.count;
+            if (k < leftCount) {
+                node = node.left;
+            } else if (k == leftCount) {
+                return node.item;
+            } else {
+                k -= leftCount + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Count the items with an id in [lo, hi]
+     *
+     * @param lo smallest id
+     * @param hi largest id
+     * @return number of items in range
+     */
+    public int countRange(int lo, int hi) {
+        if (lo > hi) return 0;
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    /**
+     * Find the node with the smallest id not smaller than the given one
+     *
+     * @param itemID given item ID
+     * @return the node, nil if every id is smaller
+     */
+    private Node ceiling(int itemID) {
+        Node result = nil;
+        Node node = root;
+        while (node != nil) {
+            int nodeID = node.item.getId();
+            if (itemID == nodeID) return node;
+            if (itemID < nodeID) {
+                result = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
         }
-        return null;
+        return result;
     }
 
+    /**
+     * In-order successor of a node
+     *
+     * @param node given node
+     * @return the next node, nil after the last one
+     */
+    private Node successor(Node node) {
+        if (node.right != nil) {
+            return minimum(node.right);
+        }
+        Node parent = node.parent;
+        while (parent != nil && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    /**
+     * Create a cursor for in-order range scans, it can be reset and reused for any number of ranges
+     *
+     * @return an empty cursor
+     */
+    public RangeCursor rangeCursor() {
+        return new RangeCursor();
+    }
+
+    /**
+     * In-order iterator over the items with an id in [lo, hi].
+     * It walks parent pointers, so iterating allocates nothing. The tree must not change while iterating.
+     */
+    public class RangeCursor implements Iterator<Item> {
+        private Node current = nil;
+        private int hi;
+
+        /**
+         * Position the cursor on the first item of a new range
+         *
+         * @param lo smallest id
+         * @param hi largest id
+         * @return this cursor
+         */
+        public RangeCursor reset(int lo, int hi) {
+            this.current = ceiling(lo);
+            this.hi = hi;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != nil && current.item.getId() <= hi;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Item item = current.item;
+            current = successor(current);
+            return item;
+        }
+    }
+
+    /**
+     * Heap usage after a full garbage collection, used for the memory footprint measurements
+     *
+     * @return used heap in bytes
+     */
+    static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
 
     public static void main(String[] args) throws IOException {
         // for empirical analysis
+        searchBenchmark();
+        rangeBenchmark();
+        soakBenchmark();
+    }
+
+    /**
+     * Random search cost, footprint and build time over warehouseData6 ... warehouseData25
+     *
+     * @throws IOException file not exists
+     */
+    private static void searchBenchmark() throws IOException {
+        // line 1: search ns/op, line 2: tree footprint in bytes per item, line 3: build time in ms
+        // line 4: TreeMap get ns/op, line 5: HashItemIndex search ns/op
         Random random = new Random();
         int dataSize = 26;
         StringBuilder stringBuilder = new StringBuilder();
+        StringBuilder memoryBuilder = new StringBuilder();
+        StringBuilder buildBuilder = new StringBuilder();
+        StringBuilder treeMapBuilder = new StringBuilder();
+        StringBuilder hashIndexBuilder = new StringBuilder();
 
         for (int i = 6; i < dataSize; i++) {
             long start, end, duration = 0;
             int size = (int) Math.pow(2, i);
             int itemID;
             Item[] warehouseItems = GUI.generateItems("warehouseData" + i + ".txt");
+            long before = usedMemory();
+            start = System.nanoTime();
             RedBlackTree redBlackTree = new RedBlackTree(warehouseItems);
+            end = System.nanoTime();
+            buildBuilder.append((end - start) / 1000000).append(", ");
+            long after = usedMemory();
 
             for (int j = 0; j < 10000; j++) {
                 itemID = random.nextInt(size);
@@ -232,8 +640,138 @@ public class RedBlackTree {
                 duration = duration + end - start;
             }
             stringBuilder.append(duration / 10000).append(", ");
+            memoryBuilder.append((after - before) / size).append(", ");
+
+            TreeMap<Integer, Item> treeMap = new TreeMap<>();
+            for (Item item : warehouseItems) {
+                treeMap.put(item.getId(), item);
+            }
+            duration = 0;
+            for (int j = 0; j < 10000; j++) {
+                itemID = random.nextInt(size);
+                start = System.nanoTime();
+                treeMap.get(itemID);
+                end = System.nanoTime();
+                duration = duration + end - start;
+            }
+            treeMapBuilder.append(duration / 10000).append(", ");
+
+            HashItemIndex hashIndex = new HashItemIndex(warehouseItems);
+            duration = 0;
+            for (int j = 0; j < 10000; j++) {
+                itemID = random.nextInt(size);
+                start = System.nanoTime();
+                hashIndex.search(itemID);
+                end = System.nanoTime();
+                duration = duration + end - start;
+            }
+            hashIndexBuilder.append(duration / 10000).append(", ");
             System.out.println(i);
         }
         System.out.println(stringBuilder.toString());
+        System.out.println(memoryBuilder.toString());
+        System.out.println(buildBuilder.toString());
+        System.out.println(treeMapBuilder.toString());
+        System.out.println(hashIndexBuilder.toString());
+    }
+
+    /**
+     * Order statistic and range queries against TreeMap on the test-f1 files loaded by the GUI.
+     * Every line is "<operation>: tree ns/op, TreeMap ns/op; ..." per file.
+     *
+     * @throws IOException file not exists
+     */
+    private static void rangeBenchmark() throws IOException {
+        Random random = new Random();
+        int width = 1000;
+        int rounds = 1000;
+        StringBuilder rankResult = new StringBuilder("rank: ");
+        StringBuilder countResult = new StringBuilder("countRange: ");
+        StringBuilder scanResult = new StringBuilder("range scan: ");
+        for (int f = 1; f <= 5; f++) {
+            Item[] warehouseItems = GUI.generateItems("test-f1-" + f + ".txt");
+            RedBlackTree redBlackTree = new RedBlackTree(warehouseItems);
+            TreeMap<Integer, Item> treeMap = new TreeMap<>();
+            for (Item item : warehouseItems) {
+                treeMap.put(item.getId(), item);
+            }
+            RangeCursor cursor = redBlackTree.rangeCursor();
+            long rankTree = 0, rankMap = 0, countTree = 0, countMap = 0, scanTree = 0, scanMap = 0;
+            long start, checksum = 0;
+            for (int j = 0; j < rounds; j++) {
+                int lo = random.nextInt(warehouseItems.length);
+                int hi = lo + width - 1;
+
+                start = System.nanoTime();
+                checksum += redBlackTree.rank(lo);
+                rankTree += System.nanoTime() - start;
+                start = System.nanoTime();
+                checksum -= treeMap.headMap(lo).size();
+                rankMap += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                checksum += redBlackTree.countRange(lo, hi);
+                countTree += System.nanoTime() - start;
+                start = System.nanoTime();
+                checksum -= treeMap.subMap(lo, true, hi, true).size();
+                countMap += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                cursor.reset(lo, hi);
+                while (cursor.hasNext()) {
+                    checksum += cursor.next().getId();
+                }
+                scanTree += System.nanoTime() - start;
+                start = System.nanoTime();
+                for (Item item : treeMap.subMap(lo, true, hi, true).values()) {
+                    checksum -= item.getId();
+                }
+                scanMap += System.nanoTime() - start;
+            }
+            if (checksum != 0) throw new IllegalStateException("Range queries disagree with TreeMap.");
+            rankResult.append(rankTree / rounds).append(", ").append(rankMap / rounds).append("; ");
+            countResult.append(countTree / rounds).append(", ").append(countMap / rounds).append("; ");
+            scanResult.append(scanTree / rounds).append(", ").append(scanMap / rounds).append("; ");
+        }
+        System.out.println(rankResult.toString().trim());
+        System.out.println(countResult.toString().trim());
+        System.out.println(scanResult.toString().trim());
+    }
+
+    /**
+     * Steady insert/ship workload: every day a batch of new parcels arrives and every parcel due that day
+     * is drained from the MinHeap and evicted from the tree. Tree size and heap usage must stay flat.
+     * Every line is "day: tree size, used heap MB".
+     *
+     * @throws IOException file not exists
+     */
+    private static void soakBenchmark() throws IOException {
+        Item[] warehouseItems = GUI.generateItems("warehouseData20.txt");
+        int dailyParcels = warehouseItems.length / 100;
+        Random random = new Random();
+        // deadlines of the soak are plain day numbers, the heap only compares them
+        for (int i = 0; i < warehouseItems.length; i++) {
+            warehouseItems[i] = new Item(warehouseItems[i].getId(), random.nextInt(100), 1, i);
+        }
+        RedBlackTree redBlackTree = new RedBlackTree(warehouseItems);
+        MinHeap minHeap = new MinHeap(warehouseItems);
+        Item[] shipped = new Item[4 * dailyParcels];
+        int nextID = warehouseItems.length;
+        for (int day = 0; day < 1000; day++) {
+            for (int j = 0; j < dailyParcels; j++) {
+                Item item = new Item(nextID, day + 1 + random.nextInt(100), 1, nextID);
+                nextID++;
+                minHeap.insert(item);
+                redBlackTree.add(item);
+            }
+            int count;
+            do {
+                count = minHeap.drainUntil(day, shipped);
+                redBlackTree.removeAll(shipped, count);
+            } while (count == shipped.length);
+            if (day % 100 == 0) {
+                System.out.println(day + ": " + redBlackTree.size() + ", " + (usedMemory() >> 20));
+            }
+        }
     }
 }
@@ -0,0 +1,81 @@
+/**
+ * RowIndex maps item IDs to rows of an ItemStorage with the cheapest method the IDs allow.
+ * <p>
+ * While every id is the first id plus its row (the generated warehouse data) the row is computed directly.
+ * While ids are ascending the row is found by binary search over the stored ids. When ids arrive
+ * out of order an IntIntHashMap is built on the first lookup, once, and maintained from then on, so a
+ * storage that is only loaded and read row by row (e.g. turned into Items) never pays for it.
+ */
+class RowIndex {
+
+    private int firstID;
+    private int lastID;
+    private boolean dense;
+    private boolean sorted;
+    private IntIntHashMap rows;
+
+    // Constructor
+    RowIndex() {
+        this.dense = true;
+        this.sorted = true;
+        this.rows = null;
+    }
+
+    /**
+     * Record a row that was just appended to the storage
+     *
+     * @param storage the storage, already holding the row
+     * @param itemID  id of the row
+     * @param row     the new row
+     */
+    void added(ItemStorage storage, int itemID, int row) {
+        if (row == 0) {
+            firstID = itemID;
+        } else {
+            dense = dense && (long) itemID == (long) firstID + row;
+            sorted = sorted && itemID > lastID;
+        }
+        lastID = itemID;
+        if (rows != null) {
+            rows.put(itemID, row);
+        }
+    }
+
+    /**
+     * Find the row of an item ID
+     *
+     * @param storage the storage
+     * @param itemID  given item ID
+     * @return row, ItemStorage.MISSING if absent
+     */
+    int rowOf(ItemStorage storage, int itemID) {
+        int size = storage.size();
+        if (size == 0) return ItemStorage.MISSING;
+        if (dense) {
+            long row = (long) itemID - firstID;
+            return row >= 0 && row < size ? (int) row : ItemStorage.MISSING;
+        }
+        if (sorted) {
+            int lo = 0, hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int midID = storage.getId(mid);
+                if (midID < itemID) {
+                    lo = mid + 1;
+                } else if (midID > itemID) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return ItemStorage.MISSING;
+        }
+        if (rows == null) {
+            rows = new IntIntHashMap(size);
+            for (int r = 0; r < size; r++) {
+                rows.put(storage.getId(r), r);
+            }
+        }
+        return rows.get(itemID);
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * RowMinHeap is a min heap ordered by deadline over the rows of an ItemStorage.
+ * <p>
+ * Every heap slot is a single long: the deadline in the high 32 bits and the row in the low 32 bits, as in
+ * PackedMinHeap. Since the row already names the parcel in the store, no side table and no Item object is
+ * needed at all: the heap is one long[] and hands out rows.
+ */
+public class RowMinHeap {
+
+    private static final long ROW_MASK = 0xFFFFFFFFL;
+
+    private final ItemStorage store;
+    private int size;
+    // packed (deadline, row) keys, index 0 unused like MinHeap
+    private long[] keys;
+
+    // Constructors
+    public RowMinHeap(ItemStorage store, int maxN) {
+        this.store = store;
+        this.size = 0;
+        this.keys = new long[Math.max(maxN, 1) + 1];
+    }
+
+    /**
+     * Create a heap holding every row of the store, heapified bottom-up in O(n). The key array keeps 1/64
+     * spare room, so parcels added later do not copy a key array that fills most of a small heap
+     *
+     * @param store the parcels
+     */
+    public RowMinHeap(ItemStorage store) {
+        this(store, store.size() + Math.max(store.size() >> 6, 16));
+        for (int row = 0; row < store.size(); row++) {
+            keys[row + 1] = pack(store.getDeadline(row), row);
+        }
+        size = store.size();
+        build();
+    }
+
+    private static long pack(int deadline, int row) {
+        return ((long) deadline << 32) | (row & ROW_MASK);
+    }
+
+    private static int rowOf(long key) {
+        return (int) (key & ROW_MASK);
+    }
+
+    /**
+     * Insert a row of the store, doubling the key array when it is full
+     *
+     * @param row row of a new parcel
+     */
+    public void insert(int row) {
+        if (size == keys.length - 1) {
+            long[] temp = new long[2 * keys.length];
+            System.arraycopy(keys, 1, temp, 1, size);
+            keys = temp;
+        }
+        keys[++size] = pack(store.getDeadline(row), row);
+        swim(size);
+    }
+
+    /**
+     * Shift the kth key up
+     *
+     * @param k index
+     */
+    private void swim(int k) {
+        long key = keys[k];
+        while (k > 1 && keys[k / 2] > key) {
+            keys[k] = keys[k / 2];
+            k = k / 2;
+        }
+        keys[k] = key;
+    }
+
+    /**
+     * minHeapify at index k
+     *
+     * @param k index
+     */
+    private void sink(int k) {
+        long key = keys[k];
+        while (2 * k <= size) {
+            int j = 2 * k;
+            if (j < size && keys[j] > keys[j + 1]) j++;
+            if (key <= keys[j]) break;
+            keys[k] = keys[j];
+            k = j;
+        }
+        keys[k] = key;
+    }
+
+    /**
+     * Extract the row with the soonest deadline
+     *
+     * @return row of the soonest parcel
+     */
+    public int extractMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        int min = rowOf(keys[1]);
+        keys[1] = keys[size--];
+        if (size > 0) sink(1);
+        return min;
+    }
+
+    /**
+     * Return the row with the soonest deadline
+     *
+     * @return row of the soonest parcel
+     */
+    public int peek() {
+        if (size == 0) throw new IllegalStateException("Heap is empty.");
+        return rowOf(keys[1]);
+    }
+
+    /**
+     * Build the min-heap
+     */
+    public void build() {
+        for (int i = size / 2; i >= 1; i--) {
+            sink(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ItemStorage getStore() {
+        return store;
+    }
+}
@@ -0,0 +1,240 @@
+import com.sun.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SearchWorkspace holds the state of one shortest path search, so that the graphs themselves are never written
+ * by a query.
+ * <p>
+ * Distances, predecessors and settled flags live in arrays indexed by vertex, each entry tagged with the epoch of
+ * the search that wrote it. Starting a new search only increments the epoch, and everything older reads as
+ * "unreached", so a reset costs O(1) instead of O(V) and nothing is allocated per query. The queues used by the
+ * searches are created once and reused as well. A workspace is not thread safe: use one per thread, any number
+ * of them can search the same graph at the same time as long as no edge is being added.
+ */
+public class SearchWorkspace {
+
+    private final int vertexNumber;
+    private int epoch;
+    private int source;
+    private final int[] stamps;
+    private final int[] settledStamps;
+    private final double[] distances;
+    private final int[] predecessors;
+
+    // reusable queues, created on first use
+    private DistanceHeap distanceHeap;
+    private LazyDistanceHeap lazyDistanceHeap;
+    private BucketQueue bucketQueue;
+    private int bucketWeight;
+
+    // Constructor
+    public SearchWorkspace(int vertexNumber) {
+        this.vertexNumber = vertexNumber;
+        // stamps start at 0, so nothing reads as reached before the first search
+        this.epoch = 1;
+        this.source = -1;
+        this.stamps = new int[vertexNumber];
+        this.settledStamps = new int[vertexNumber];
+        this.distances = new double[vertexNumber];
+        this.predecessors = new int[vertexNumber];
+    }
+
+    /**
+     * Forget the previous search and start a new one at the given vertex, O(1)
+     *
+     * @param start the start vertex
+     */
+    void begin(int start) {
+        if (epoch == Integer.MAX_VALUE) {
+            // stamps would repeat after the wrap around, clear them once every 2^31 searches
+            Arrays.fill(stamps, 0);
+            Arrays.fill(settledStamps, 0);
+            epoch = 1;
+        }
+        epoch++;
+        source = start;
+        update(start, 0, -1);
+    }
+
+    /**
+     * Make sure the workspace can hold a graph
+     *
+     * @param graphVertexNumber number of vertices of the graph to search
+     */
+    void checkCapacity(int graphVertexNumber) {
+        if (graphVertexNumber > vertexNumber) {
+            throw new IllegalArgumentException("Workspace holds " + vertexNumber + " vertices, the graph has "
+                    + graphVertexNumber + ".");
+        }
+    }
+
+    /**
+     * Record a shorter distance for a vertex
+     *
+     * @param vertex      vertex id
+     * @param distance    new distance
+     * @param predecessor previous vertex on the path, -1 for the start
+     */
+    void update(int vertex, double distance, int predecessor) {
+        stamps[vertex] = epoch;
+        distances[vertex] = distance;
+        predecessors[vertex] = predecessor;
+    }
+
+    void settle(int vertex) {
+        settledStamps[vertex] = epoch;
+    }
+
+    boolean isSettled(int vertex) {
+        return settledStamps[vertex] == epoch;
+    }
+
+    /**
+     * Distance from the start of the last search
+     *
+     * @param vertex vertex id
+     * @return distance, Double.MAX_VALUE if unreachable
+     */
+    public double getDistance(int vertex) {
+        return stamps[vertex] == epoch ? distances[vertex] : Double.MAX_VALUE;
+    }
+
+    /**
+     * Previous vertex on the shortest path of the last search
+     *
+     * @param vertex vertex id
+     * @return predecessor, -1 for the start and unreachable vertices
+     */
+    public int getPredecessor(int vertex) {
+        return stamps[vertex] == epoch ? predecessors[vertex] : -1;
+    }
+
+    /**
+     * Start vertex of the last search
+     *
+     * @return vertex id, -1 before the first search
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Rebuild the shortest path of the last search to a vertex
+     *
+     * @param destination vertex id
+     * @return vertex ids from the start to the destination inclusive, empty if the destination is unreachable
+     */
+    public List<Integer> getPath(int destination) {
+        ArrayList<Integer> path = new ArrayList<>();
+        if (getDistance(destination) == Double.MAX_VALUE) return path;
+        for (int v = destination; v != -1; v = getPredecessor(v)) {
+            path.add(v);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    DistanceHeap distanceHeap() {
+        if (distanceHeap == null) {
+            distanceHeap = new DistanceHeap(vertexNumber);
+        } else {
+            // only non-empty if the previous search was interrupted
+            distanceHeap.clear();
+        }
+        return distanceHeap;
+    }
+
+    LazyDistanceHeap lazyDistanceHeap() {
+        if (lazyDistanceHeap == null) {
+            lazyDistanceHeap = new LazyDistanceHeap(vertexNumber);
+        } else {
+            lazyDistanceHeap.clear();
+        }
+        return lazyDistanceHeap;
+    }
+
+    /**
+     * Reusable bucket queue, recreated only when the graph needs more buckets
+     *
+     * @param maxWeight largest edge weight of the graph
+     * @return an empty bucket queue
+     */
+    BucketQueue bucketQueue(int maxWeight) {
+        if (bucketQueue == null || bucketWeight < maxWeight) {
+            bucketQueue = new BucketQueue(vertexNumber, maxWeight);
+            bucketWeight = maxWeight;
+        } else if (!bucketQueue.isEmpty()) {
+            bucketQueue.clear();
+        }
+        return bucketQueue;
+    }
+
+    public int getVertexNumber() {
+        return vertexNumber;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // for empirical analysis of repeated queries from different sources
+        // every line is "<search>: ns/query, allocated bytes/query" for test-f3-1..5
+        int[] testSizes = {300, 1000, 5000, 25000, 50000};
+        int queries = 100;
+        StringBuilder freshResult = new StringBuilder("CsrGraph, new workspace per query: ");
+        StringBuilder reusedResult = new StringBuilder("CsrGraph, reused workspace: ");
+        StringBuilder threadResult = new StringBuilder("CsrGraph, one workspace per thread, queries/s: ");
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 1; i <= testSizes.length; i++) {
+            CsrGraph csrGraph = GUI.initializeCsrGraph("test-f3-" + i + ".txt", testSizes[i - 1]);
+            int n = csrGraph.getVertexNumber();
+
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                csrGraph.dijkstra(q * 7919 % n, new SearchWorkspace(n));
+            }
+            long end = System.nanoTime();
+            bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+            freshResult.append((end - start) / queries).append(", ").append(bytes / queries).append("; ");
+
+            SearchWorkspace workspace = new SearchWorkspace(n);
+            csrGraph.dijkstra(0, workspace);
+            bytes = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                csrGraph.dijkstra(q * 7919 % n, workspace);
+            }
+            end = System.nanoTime();
+            bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+            reusedResult.append((end - start) / queries).append(", ").append(bytes / queries).append("; ");
+
+            int threadNumber = Runtime.getRuntime().availableProcessors();
+            Thread[] workers = new Thread[threadNumber];
+            for (int t = 0; t < threadNumber; t++) {
+                int offset = t;
+                workers[t] = new Thread(() -> {
+                    SearchWorkspace own = new SearchWorkspace(n);
+                    for (int q = 0; q < queries; q++) {
+                        csrGraph.dijkstra((q + offset) * 7919 % n, own);
+                    }
+                });
+            }
+            start = System.nanoTime();
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            end = System.nanoTime();
+            threadResult.append(1000000000L * threadNumber * queries / (end - start)).append(", ");
+        }
+        System.out.println(freshResult.toString().trim());
+        System.out.println(reusedResult.toString().trim());
+        System.out.println(threadResult.toString().trim());
+    }
+}